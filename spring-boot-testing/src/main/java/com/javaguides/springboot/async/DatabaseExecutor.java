@@ -0,0 +1,123 @@
+package com.javaguides.springboot.async;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking {@code EmployeeService} calls for the async endpoints, off the servlet threads.
+ * <p>
+ * One thread per pooled connection: more threads would only wait inside the pool, fewer would
+ * leave connections idle. Work beyond that waits in a bounded queue; when the queue is full the
+ * call fails immediately with {@link RejectedExecutionException}, and a call not finished within
+ * the timeout fails with {@link TimeoutException}. Queued work whose caller already timed out is
+ * dropped instead of run.
+ */
+@Component
+public class DatabaseExecutor implements MeterBinder, DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public DatabaseExecutor(@Value("${employees.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+                            @Value("${employees.async.queue-capacity:100}") int queueCapacity,
+                            @Value("${employees.async.timeout:5s}") Duration timeout) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "employee-db-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.timeout = timeout;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    expired.increment();
+                    return;
+                }
+                try {
+                    result.complete(work.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+        return result
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((value, failure) -> {
+                    if (failure instanceof TimeoutException)
+                        timedOut.increment();
+                });
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employees.db.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Database calls running on the async executor")
+                .register(registry);
+        Gauge.builder("employees.db.executor.queued", executor, pool -> pool.getQueue().size())
+                .description("Database calls waiting for an async executor thread")
+                .register(registry);
+        Gauge.builder("employees.db.executor.threads", executor, ThreadPoolExecutor::getMaximumPoolSize)
+                .description("Threads of the async executor, one per pooled connection")
+                .register(registry);
+        FunctionCounter.builder("employees.db.executor.calls", completed, LongAdder::sum)
+                .description("Database calls handed to the async executor")
+                .tag("result", "completed")
+                .register(registry);
+        FunctionCounter.builder("employees.db.executor.calls", rejected, LongAdder::sum)
+                .description("Database calls handed to the async executor")
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("employees.db.executor.calls", timedOut, LongAdder::sum)
+                .description("Database calls handed to the async executor")
+                .tag("result", "timeout")
+                .register(registry);
+        FunctionCounter.builder("employees.db.executor.calls", expired, LongAdder::sum)
+                .description("Database calls handed to the async executor")
+                .tag("result", "expired")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,134 @@
+package com.javaguides.springboot.bloom;
+
+import com.javaguides.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory membership filter of every email stored in {@code employees}, used to skip the
+ * {@code findByEmail} duplicate check for addresses that were definitely never seen.
+ * <p>
+ * Until the startup load has streamed the whole {@code email} column every email is reported as
+ * possibly known, so the database stays the source of truth. Deleted emails are never removed (a
+ * Bloom filter cannot forget), they only cost the query that would have been made anyway.
+ */
+@Slf4j
+@Component
+public class KnownEmailFilter implements MeterBinder {
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScalableBloomFilter filter;
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder possiblePositives = new LongAdder();
+    private final LongAdder observedFalsePositives = new LongAdder();
+    private volatile boolean ready;
+
+    public KnownEmailFilter(EmployeeRepository employeeRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${employees.email-filter.initial-capacity:1000000}") long initialCapacity,
+                            @Value("${employees.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.filter = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (ready)
+            return; // already filled from the warm start snapshot
+
+        long start = System.nanoTime();
+        try {
+            // the stream is only open while its transaction is
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+                    emails.forEach(filter::add);
+                }
+            });
+        } catch (RuntimeException e) {
+            // stay in pass-through mode, every duplicate check keeps going to the database
+            log.warn("Could not load the known email filter, duplicate checks will query the database", e);
+            return;
+        }
+        ready = true;
+        log.info("Loaded {} employee emails into the known email filter in {} ms ({} bytes)",
+                filter.approximateCount(), (System.nanoTime() - start) / 1_000_000, filter.memoryBytes());
+    }
+
+    /**
+     * Fills the filter from emails read elsewhere (the startup warm start) instead of the table;
+     * they have to cover every stored email.
+     */
+    public void load(Stream<String> emails) {
+        emails.forEach(filter::add);
+        ready = true;
+    }
+
+    /**
+     * {@code false} means the email is definitely not stored; {@code true} has to be confirmed
+     * against the database.
+     */
+    public boolean mightContain(String email) {
+        if (ready && !filter.mightContain(email)) {
+            definiteNegatives.increment();
+            return false;
+        }
+        possiblePositives.increment();
+        return true;
+    }
+
+    public void add(String email) {
+        filter.add(email);
+    }
+
+    /**
+     * Records a {@link #mightContain(String) possible positive} the database did not confirm.
+     */
+    public void recordFalsePositive() {
+        if (ready)
+            observedFalsePositives.increment();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employees.email.filter.false.positive.rate", filter, ScalableBloomFilter::approximateFalsePositiveRate)
+                .description("Estimated false-positive rate of the known email filter")
+                .register(registry);
+        Gauge.builder("employees.email.filter.memory", filter, ScalableBloomFilter::memoryBytes)
+                .description("Bit storage held by the known email filter")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("employees.email.filter.size", filter, ScalableBloomFilter::approximateCount)
+                .description("Emails added to the known email filter")
+                .register(registry);
+        FunctionCounter.builder("employees.email.filter.checks", definiteNegatives, LongAdder::sum)
+                .description("Duplicate checks answered by the known email filter")
+                .tag("result", "negative")
+                .register(registry);
+        FunctionCounter.builder("employees.email.filter.checks", possiblePositives, LongAdder::sum)
+                .description("Duplicate checks answered by the known email filter")
+                .tag("result", "possible")
+                .register(registry);
+        FunctionCounter.builder("employees.email.filter.checks", observedFalsePositives, LongAdder::sum)
+                .description("Duplicate checks answered by the known email filter")
+                .tag("result", "false_positive")
+                .register(registry);
+    }
+}
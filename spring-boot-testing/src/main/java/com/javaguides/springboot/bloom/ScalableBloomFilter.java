@@ -0,0 +1,153 @@
+package com.javaguides.springboot.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe scalable Bloom filter (Almeida et al.). When the newest stage reaches its capacity a
+ * new stage is appended with {@link #GROWTH_FACTOR} times the capacity and a false-positive target
+ * tightened by {@link #TIGHTENING_RATIO}. The first stage starts at
+ * {@code falsePositiveRate * (1 - TIGHTENING_RATIO)} so the compounded rate of all stages stays
+ * below {@code falsePositiveRate} however many keys are added.
+ */
+public class ScalableBloomFilter {
+
+    static final int GROWTH_FACTOR = 2;
+    static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        stages.add(new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    public boolean mightContain(String key) {
+        return mightContainHash(hash(key));
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        if (mightContainHash(hash))
+            return;
+        Stage stage = stages.get(stages.size() - 1);
+        if (stage.count.get() >= stage.capacity)
+            stage = grow(stage);
+        stage.add(hash);
+    }
+
+    /**
+     * Current probability that {@link #mightContain(String)} answers true for an absent key,
+     * estimated from the fill of every stage.
+     */
+    public double approximateFalsePositiveRate() {
+        double allNegative = 1;
+        for (Stage stage : stages)
+            allNegative *= 1 - stage.approximateFalsePositiveRate();
+        return 1 - allNegative;
+    }
+
+    public long approximateCount() {
+        long count = 0;
+        for (Stage stage : stages)
+            count += stage.count.get();
+        return count;
+    }
+
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages)
+            bytes += (long) stage.bits.length() * Long.BYTES;
+        return bytes;
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    private boolean mightContainHash(long hash) {
+        for (Stage stage : stages)
+            if (stage.mightContain(hash))
+                return true;
+        return false;
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage last = stages.get(stages.size() - 1);
+        if (last != full)
+            return last;
+        Stage next = new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+        stages.add(next);
+        return next;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes finished with the SplitMix64 mixer; the two 32-bit halves
+     * feed the double hashing scheme ({@code h1 + i * h2}) of each stage.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray(Math.toIntExact((optimalBits + Long.SIZE - 1) / Long.SIZE));
+            this.bitCount = (long) bits.length() * Long.SIZE;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        private boolean mightContain(long hash) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        private void add(long hash) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+            count.incrementAndGet();
+        }
+
+        private long index(long combinedHash) {
+            return (combinedHash & Long.MAX_VALUE) % bitCount;
+        }
+
+        private double approximateFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashCount * (double) count.get() / bitCount), hashCount);
+        }
+    }
+}
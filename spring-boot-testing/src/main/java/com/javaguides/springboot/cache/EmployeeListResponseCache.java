@@ -0,0 +1,222 @@
+package com.javaguides.springboot.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.event.EmployeeChangedEvent;
+import com.javaguides.springboot.event.EmployeesUpsertedEvent;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.service.EmployeeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the full employee list already serialized to JSON, plus its gzip variant, so that
+ * {@code getAll} hits cost no database access, no entity hydration and no Jackson work.
+ * <p>
+ * A sparse fieldset ({@code fields=}) gets its own body, built on first use from a select of just
+ * those columns. Every committed change invalidates all bodies and schedules a rebuild of the full
+ * one in the background; a body built from data read before the latest change is never installed.
+ * <p>
+ * CBOR and Smile variants are transcoded from the cached JSON on first request and cached next to
+ * it under the same invalidation, so binary clients do not cost a database read either.
+ * <p>
+ * Events only arrive for changes made through this instance. Writes from another instance, a
+ * migration or a manual fix reach the cache through {@code employees.list-cache.max-age}: an older
+ * body is treated as a miss and rebuilt from the table.
+ */
+@Slf4j
+@Component
+public class EmployeeListResponseCache {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final List<MediaType> BINARY_TYPES = List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final long maxAgeNanos;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-list-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Object rebuildLock = new Object();
+    private final Map<Set<EmployeeField>, CachedBody> bodies = new ConcurrentHashMap<>();
+    private final Map<EncodedKey, EncodedBody> encodedBodies = new ConcurrentHashMap<>();
+    private final Map<MediaType, ObjectMapper> binaryMappers = Map.of(
+            MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build(),
+            APPLICATION_SMILE, Jackson2ObjectMapperBuilder.smile().build());
+
+    // guarded by this
+    private long generation;
+
+    public EmployeeListResponseCache(EmployeeService employeeService, ObjectMapper objectMapper,
+                                     @Value("${employees.list-cache.max-age:5s}") Duration maxAge) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    public CachedBody get() {
+        return get(EmployeeField.ALL);
+    }
+
+    public CachedBody get(Set<EmployeeField> fields) {
+        Set<EmployeeField> key = key(fields);
+        CachedBody body = bodies.get(key);
+        if (body != null && isFresh(body.builtAt()))
+            return body;
+
+        // concurrent misses wait for a single rebuild instead of each loading the table
+        synchronized (rebuildLock) {
+            body = bodies.get(key);
+            return body != null && isFresh(body.builtAt()) ? body : rebuild(key, () -> key.equals(EmployeeField.ALL)
+                    ? employeeService.getAllEmployees()
+                    : employeeService.getAllEmployees(key));
+        }
+    }
+
+    /**
+     * Builds the full list from rows loaded elsewhere (the startup warm start) instead of the
+     * table. Like a regular rebuild, the body is dropped if a change commits while they load.
+     */
+    public void warm(Supplier<List<Employee>> employees) {
+        synchronized (rebuildLock) {
+            rebuild(EmployeeField.ALL, employees);
+        }
+    }
+
+    /**
+     * The list in one of the {@link #BINARY_TYPES}; never gzipped, both formats are already compact
+     * and mostly carry short strings.
+     */
+    public byte[] get(Set<EmployeeField> fields, MediaType binaryType) {
+        ObjectMapper binaryMapper = binaryMappers.get(binaryType);
+        if (binaryMapper == null)
+            throw new IllegalArgumentException("Not a binary employee format: " + binaryType);
+
+        EncodedKey key = new EncodedKey(key(fields), binaryType);
+        EncodedBody encoded = encodedBodies.get(key);
+        if (encoded != null && isFresh(encoded.builtAt()))
+            return encoded.bytes();
+
+        long expectedGeneration = generation();
+        CachedBody source = get(key.fields());
+        try {
+            // as old as the JSON it was transcoded from, not younger
+            encoded = new EncodedBody(binaryMapper.writeValueAsBytes(objectMapper.readTree(source.json())), source.builtAt());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            if (generation == expectedGeneration)
+                encodedBodies.put(key, encoded);
+        }
+        return encoded.bytes();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        invalidateAndRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesUpserted(EmployeesUpsertedEvent event) {
+        invalidateAndRebuild();
+    }
+
+    private void invalidateAndRebuild() {
+        invalidate();
+        if (rebuildScheduled.compareAndSet(false, true))
+            rebuildExecutor.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    get();
+                } catch (RuntimeException e) {
+                    log.warn("Background rebuild of the employee list failed, next request will retry", e);
+                }
+            });
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        bodies.clear();
+        encodedBodies.clear();
+    }
+
+    private CachedBody rebuild(Set<EmployeeField> fields, Supplier<? extends List<?>> loader) {
+        long expectedGeneration = generation();
+        List<?> employees = loader.get();
+        CachedBody body;
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(employees);
+            body = new CachedBody(json, gzip(json), System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        install(fields, body, expectedGeneration);
+        return body;
+    }
+
+    private boolean isFresh(long builtAt) {
+        return System.nanoTime() - builtAt < maxAgeNanos;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void install(Set<EmployeeField> fields, CachedBody body, long expectedGeneration) {
+        if (generation == expectedGeneration)
+            bodies.put(fields, body);
+    }
+
+    private static Set<EmployeeField> key(Set<EmployeeField> fields) {
+        return fields.isEmpty() ? EmployeeField.ALL : EnumSet.copyOf(fields);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public record CachedBody(byte[] json, byte[] gzip, long builtAt) {
+    }
+
+    private record EncodedBody(byte[] bytes, long builtAt) {
+    }
+
+    private record EncodedKey(Set<EmployeeField> fields, MediaType type) {
+    }
+}
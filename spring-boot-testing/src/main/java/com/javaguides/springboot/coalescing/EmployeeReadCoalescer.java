@@ -0,0 +1,68 @@
+package com.javaguides.springboot.coalescing;
+
+import com.javaguides.springboot.model.Employee;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * {@link SingleFlight} groups for the employee reads that stampede: by id and by email. Each
+ * caller gets its own {@link Employee} instances.
+ * <p>
+ * The full list is not coalesced. Its only reader is the list response cache, which already
+ * rebuilds once for all concurrent misses and must not be answered by a read from before a commit.
+ */
+@Component
+public class EmployeeReadCoalescer implements MeterBinder {
+
+    private final SingleFlight<Long, Optional<Employee>> byId;
+    private final SingleFlight<String, Optional<Employee>> byEmail;
+
+    public EmployeeReadCoalescer(@Value("${employees.coalescing.timeout:2s}") Duration timeout) {
+        this.byId = new SingleFlight<>(timeout, employee -> employee.map(EmployeeReadCoalescer::copy));
+        this.byEmail = new SingleFlight<>(timeout, employee -> employee.map(EmployeeReadCoalescer::copy));
+    }
+
+    public Optional<Employee> byId(long id, Supplier<Optional<Employee>> loader) {
+        return byId.execute(id, loader);
+    }
+
+    public Optional<Employee> byEmail(String email, Supplier<Optional<Employee>> loader) {
+        return byEmail.execute(email, loader);
+    }
+
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, SingleFlight<?, ?>> groups = Map.of("by_id", byId, "by_email", byEmail);
+        groups.forEach((name, group) -> {
+            FunctionCounter.builder("employees.coalescing.calls", group, SingleFlight::getLeaders)
+                    .description("Employee reads by how they were answered")
+                    .tags("query", name, "result", "database")
+                    .register(registry);
+            FunctionCounter.builder("employees.coalescing.calls", group, SingleFlight::getFollowers)
+                    .description("Employee reads by how they were answered")
+                    .tags("query", name, "result", "coalesced")
+                    .register(registry);
+            FunctionCounter.builder("employees.coalescing.timeouts", group, SingleFlight::getTimeouts)
+                    .description("Coalesced employee reads that gave up waiting and queried the database")
+                    .tag("query", name)
+                    .register(registry);
+            Gauge.builder("employees.coalescing.ratio", group, SingleFlight::coalescingRatio)
+                    .description("Share of employee reads answered by another caller's query")
+                    .tag("query", name)
+                    .register(registry);
+        });
+    }
+}
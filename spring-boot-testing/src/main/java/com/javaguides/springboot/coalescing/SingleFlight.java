@@ -0,0 +1,99 @@
+package com.javaguides.springboot.coalescing;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller (the leader) runs the
+ * loader, callers arriving while it runs (followers) wait for its result instead of running their
+ * own. Nothing is cached, the key is forgotten as soon as the leader finishes.
+ * <p>
+ * Results may be mutable (JPA entities are), so the leader publishes a {@code copier} snapshot
+ * and every follower receives its own copy of it. A leader failure is rethrown to its followers.
+ * A follower that waits longer than the timeout stops waiting and runs the loader itself.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final UnaryOperator<V> copier;
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(Duration timeout, UnaryOperator<V> copier) {
+        this.timeout = timeout;
+        this.copier = copier;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, call);
+        if (leader == null)
+            return lead(key, call, loader);
+
+        followers.increment();
+        try {
+            return copier.apply(leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced call", e);
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        leaders.increment();
+        try {
+            V value = loader.get();
+            // snapshot before the leader's own caller can modify the value
+            call.complete(copier.apply(value));
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable failure) {
+        if (failure instanceof RuntimeException runtimeException)
+            return runtimeException;
+        if (failure instanceof Error error)
+            throw error;
+        return new IllegalStateException(failure);
+    }
+
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    public long getFollowers() {
+        return followers.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Share of calls that were answered by another caller's database call.
+     */
+    public double coalescingRatio() {
+        long followed = followers.sum();
+        long total = leaders.sum() + followed;
+        return total == 0 ? 0 : (double) followed / total;
+    }
+}
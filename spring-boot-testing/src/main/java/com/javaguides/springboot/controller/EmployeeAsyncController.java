@@ -0,0 +1,107 @@
+package com.javaguides.springboot.controller;
+
+import com.javaguides.springboot.async.DatabaseExecutor;
+import com.javaguides.springboot.idempotency.IdempotencyStore;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeLookup;
+import com.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous variant of the database-bound {@link EmployeeController} endpoints. The servlet
+ * thread is released as soon as the call is handed to the {@link DatabaseExecutor}, so it can
+ * serve cheap requests such as cached {@code getAll} hits while the database call waits.
+ * <p>
+ * A full executor queue answers 503 with {@code Retry-After}, a call over the executor timeout
+ * answers 504. Idempotency keys are shared with the matching {@link EmployeeController} endpoints.
+ */
+@RestController
+@RequestMapping("/api/employees/async/")
+public class EmployeeAsyncController {
+
+    private final EmployeeService employeeService;
+    private final IdempotencyStore idempotencyStore;
+    private final DatabaseExecutor databaseExecutor;
+    private final String retryAfterSeconds;
+
+    public EmployeeAsyncController(EmployeeService employeeService,
+                                   IdempotencyStore idempotencyStore,
+                                   DatabaseExecutor databaseExecutor,
+                                   @Value("${employees.admission.retry-after:1s}") Duration retryAfter) {
+        this.employeeService = employeeService;
+        this.idempotencyStore = idempotencyStore;
+        this.databaseExecutor = databaseExecutor;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @PostMapping("create")
+    public CompletableFuture<ResponseEntity<Employee>> createEmployee(@RequestBody Employee employee,
+                                                                      @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey){
+        // a create never targets an existing row, whatever id the body carries
+        employee.setId(0);
+        return databaseExecutor.supply(() -> idempotencyStore.execute("POST create", idempotencyKey, employee, () -> {
+            Employee employeeSaved = employeeService.saveEmployee(employee);
+            return new ResponseEntity<>(employeeSaved, HttpStatus.CREATED);
+        }));
+    }
+
+    @GetMapping("getById/{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getById(@PathVariable("id") Long id){
+        return databaseExecutor.supply(() -> employeeService.getEmployeeById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("getByIds")
+    public CompletableFuture<ResponseEntity<List<EmployeeLookup>>> getByIds(@RequestParam("ids") List<Long> ids){
+        if (ids.size() > EmployeeController.MAX_BATCH_SIZE)
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+
+        return databaseExecutor.supply(() -> ResponseEntity.ok(EmployeeLookup.of(ids, employeeService.getEmployeesByIds(ids))));
+    }
+
+    @PutMapping("update/{id}")
+    public CompletableFuture<ResponseEntity<Employee>> update(@PathVariable("id") Long id, @RequestBody Employee employee,
+                                                              @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey){
+        return databaseExecutor.supply(() -> idempotencyStore.execute("PUT update/" + id, idempotencyKey, employee, () -> employeeService.getEmployeeById(id)
+                .map(managedEmployee -> {
+                    managedEmployee.setFirstName(employee.getFirstName());
+                    managedEmployee.setLastName(employee.getLastName());
+                    managedEmployee.setEmail(employee.getEmail());
+
+                    Employee updatedEmployee = employeeService.updateEmployee(managedEmployee);
+                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+                })
+                .orElseGet(() -> new ResponseEntity<>(employee, HttpStatus.NOT_FOUND))));
+    }
+
+    @DeleteMapping("delete/{id}")
+    public CompletableFuture<ResponseEntity<String>> delete(@PathVariable("id") long id){
+        return databaseExecutor.supply(() -> {
+            employeeService.deleteEmployee(id);
+            return new ResponseEntity<>(String.format("Object with id %d deleted successfully!", id), HttpStatus.OK);
+        });
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> executorSaturated(){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .build();
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<Void> executorTimeout(){
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+}
@@ -1,46 +1,106 @@
 package com.javaguides.springboot.controller;
 
-import com.javaguides.springboot.exception.ResourceNotFoundException;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.feed.EmployeeChangeFeed;
+import com.javaguides.springboot.idempotency.IdempotencyStore;
 import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.model.EmployeeLookup;
+import com.javaguides.springboot.model.EmployeeUpsertResult;
 import com.javaguides.springboot.service.EmployeeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/employees/")
 @RequiredArgsConstructor
 public class EmployeeController {
 
+    static final int MAX_BATCH_SIZE = 1000;
 
     private final EmployeeService employeeService;
+    private final IdempotencyStore idempotencyStore;
+    private final EmployeeChangeFeed employeeChangeFeed;
+    private final EmployeeListResponseCache employeeListResponseCache;
 
     @PostMapping("create")
-    public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee){
-        Employee employeeSaved = employeeService.saveEmployee(employee);
-        return new ResponseEntity<>(employeeSaved, HttpStatus.CREATED);
+    public ResponseEntity<Employee> createEmployee(@RequestBody Employee employee,
+                                                   @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey){
+        // a create never targets an existing row, whatever id the body carries
+        employee.setId(0);
+        return idempotencyStore.execute("POST create", idempotencyKey, employee, () -> {
+            Employee employeeSaved = employeeService.saveEmployee(employee);
+            return new ResponseEntity<>(employeeSaved, HttpStatus.CREATED);
+        });
     }
 
     @GetMapping("getAll")
-    public ResponseEntity<List<Employee>> getAllEmployees(){
-        List<Employee> employeeList = employeeService.getAllEmployees();
-        return new ResponseEntity<>(employeeList, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllEmployees(@RequestParam(name = "fields", required = false) Set<EmployeeField> fields,
+                                                  @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                                  @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        Set<EmployeeField> selected = fields == null ? EmployeeField.ALL : fields;
+        MediaType format = listFormat(accept);
+        if (format == null)
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        if (!format.equals(MediaType.APPLICATION_JSON)) {
+            byte[] body = employeeListResponseCache.get(selected, format);
+            return ResponseEntity.ok()
+                    .contentType(format)
+                    .contentLength(body.length)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(body);
+        }
+
+        EmployeeListResponseCache.CachedBody cachedBody = employeeListResponseCache.get(selected);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        byte[] body = gzip ? cachedBody.gzip() : cachedBody.json();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
     }
 
     @GetMapping("getById/{id}")
-    public ResponseEntity<Employee> getById(@PathVariable("id") Long id){
+    public ResponseEntity<?> getById(@PathVariable("id") Long id,
+                                     @RequestParam(name = "fields", required = false) Set<EmployeeField> fields){
+        // only the requested columns are selected and serialized
+        if (fields != null && !fields.isEmpty())
+            return employeeService.getEmployeeById(id, fields)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+
         return employeeService.getEmployeeById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("getByIds")
+    public ResponseEntity<List<EmployeeLookup>> getByIds(@RequestParam("ids") List<Long> ids){
+        if (ids.size() > MAX_BATCH_SIZE)
+            return ResponseEntity.badRequest().build();
+
+        return ResponseEntity.ok(EmployeeLookup.of(ids, employeeService.getEmployeesByIds(ids)));
+    }
+
     @PutMapping("update/{id}")
-    public ResponseEntity<Employee> update(@PathVariable("id") Long id, @RequestBody Employee employee){
-        return employeeService.getEmployeeById(id)
+    public ResponseEntity<Employee> update(@PathVariable("id") Long id, @RequestBody Employee employee,
+                                           @RequestHeader(name = IdempotencyStore.HEADER, required = false) String idempotencyKey){
+        return idempotencyStore.execute("PUT update/" + id, idempotencyKey, employee, () -> employeeService.getEmployeeById(id)
                 .map(managedEmployee -> {
                     managedEmployee.setFirstName(employee.getFirstName());
                     managedEmployee.setLastName(employee.getLastName());
@@ -49,7 +109,15 @@ public class EmployeeController {
                     Employee updatedEmployee = employeeService.updateEmployee(managedEmployee);
                     return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
                 })
-                .orElseGet(() -> new ResponseEntity<>(employee, HttpStatus.NOT_FOUND));
+                .orElseGet(() -> new ResponseEntity<>(employee, HttpStatus.NOT_FOUND)));
+    }
+
+    @PostMapping("upsert")
+    public ResponseEntity<EmployeeUpsertResult> upsert(@RequestBody List<Employee> employees){
+        if (employees.stream().anyMatch(employee -> employee.getEmail() == null))
+            return ResponseEntity.badRequest().build();
+
+        return ResponseEntity.ok(employeeService.upsertEmployees(employees));
     }
 
     @DeleteMapping("delete/{id}")
@@ -57,4 +125,64 @@ public class EmployeeController {
         employeeService.deleteEmployee(id);
         return new ResponseEntity<>(String.format("Object with id %d deleted successfully!", id), HttpStatus.OK);
     }
-}
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId){
+        return employeeChangeFeed.subscribe(lastEventId);
+    }
+
+    // the first of JSON, CBOR or Smile the client accepts, by quality; JSON when it has no
+    // preference, null when it accepts none of them or the header does not parse
+    static MediaType listFormat(String accept){
+        if (accept == null || accept.isBlank())
+            return MediaType.APPLICATION_JSON;
+
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0)
+                break;
+            if (type.includes(MediaType.APPLICATION_JSON))
+                return MediaType.APPLICATION_JSON;
+            for (MediaType binaryType : EmployeeListResponseCache.BINARY_TYPES)
+                if (type.includes(binaryType))
+                    return binaryType;
+        }
+        return null;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding){
+        if (acceptEncoding == null)
+            return false;
+
+        // an explicit gzip entry wins over the wildcard, q=0 means "not acceptable"
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip"))
+                gzip = quality;
+            else if (name.equals("*"))
+                any = quality;
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.javaguides.springboot.controller;
+
+import com.javaguides.springboot.model.EmployeeField;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds {@code fields=id,email} by JSON name; an unknown name fails the binding with 400.
+ */
+@Component
+public class EmployeeFieldConverter implements Converter<String, EmployeeField> {
+
+    @Override
+    public EmployeeField convert(String source) {
+        return EmployeeField.fromAttribute(source.trim());
+    }
+}
@@ -0,0 +1,26 @@
+package com.javaguides.springboot.event;
+
+import com.javaguides.springboot.model.Employee;
+
+/**
+ * Published by {@code EmployeeService} for every mutation. Listeners that need committed state
+ * should use {@code @TransactionalEventListener}; {@code employee} is {@code null} for deletions.
+ */
+public record EmployeeChangedEvent(Type type, long employeeId, Employee employee) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(Type.CREATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent updated(Employee employee) {
+        return new EmployeeChangedEvent(Type.UPDATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent deleted(long employeeId) {
+        return new EmployeeChangedEvent(Type.DELETED, employeeId, null);
+    }
+}
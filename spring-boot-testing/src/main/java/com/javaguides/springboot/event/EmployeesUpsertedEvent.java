@@ -0,0 +1,9 @@
+package com.javaguides.springboot.event;
+
+/**
+ * Published by {@code EmployeeService} once per committed chunk of a bulk upsert instead of an
+ * {@link EmployeeChangedEvent} per row, which would overflow feed subscribers and rebuild the list
+ * cache a thousand times. Listeners get the counts only and reload what they need.
+ */
+public record EmployeesUpsertedEvent(int inserted, int updated) {
+}
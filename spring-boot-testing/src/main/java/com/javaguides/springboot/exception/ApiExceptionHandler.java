@@ -0,0 +1,47 @@
+package com.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps the domain exceptions to their status codes with a small, pre-serialized body; the
+ * message (which may carry an email) is not echoed back.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final byte[] EMPLOYEE_EXISTS = body(HttpStatus.CONFLICT, "EMPLOYEE_EXISTS");
+    private static final byte[] RESOURCE_NOT_FOUND = body(HttpStatus.NOT_FOUND, "RESOURCE_NOT_FOUND");
+    private static final byte[] IDEMPOTENCY_KEY_REUSED = body(HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED");
+
+    @ExceptionHandler(DuplicateEmployeeException.class)
+    public ResponseEntity<byte[]> duplicateEmployee(){
+        return error(HttpStatus.CONFLICT, EMPLOYEE_EXISTS);
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<byte[]> resourceNotFound(){
+        return error(HttpStatus.NOT_FOUND, RESOURCE_NOT_FOUND);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<byte[]> idempotencyKeyReused(){
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, IDEMPOTENCY_KEY_REUSED);
+    }
+
+    private static ResponseEntity<byte[]> error(HttpStatus status, byte[] body){
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .body(body);
+    }
+
+    private static byte[] body(HttpStatus status, String code){
+        return String.format("{\"status\":%d,\"error\":\"%s\"}", status.value(), code).getBytes(StandardCharsets.UTF_8);
+    }
+}
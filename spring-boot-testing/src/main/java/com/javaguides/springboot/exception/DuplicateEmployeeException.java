@@ -0,0 +1,12 @@
+package com.javaguides.springboot.exception;
+
+/**
+ * An employee with the same email already exists. Thrown without a stack trace, it is a normal
+ * outcome of create retries rather than a bug.
+ */
+public class DuplicateEmployeeException extends ResourceNotFoundException {
+
+    public DuplicateEmployeeException(String email){
+        super("Employee already exists with given email: " + email, false);
+    }
+}
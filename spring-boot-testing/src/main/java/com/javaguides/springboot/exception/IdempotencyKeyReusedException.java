@@ -0,0 +1,12 @@
+package com.javaguides.springboot.exception;
+
+/**
+ * An {@code Idempotency-Key} came back with a different operation or body than the request it was
+ * first used for. Thrown without a stack trace, it is a client error rather than a bug.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String key){
+        super("Idempotency-Key reused for a different request: " + key, null, false, false);
+    }
+}
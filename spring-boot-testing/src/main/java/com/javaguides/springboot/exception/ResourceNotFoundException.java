@@ -9,4 +9,9 @@ public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message, Throwable throwable){
         super(message, throwable);
     }
+
+    // for expected outcomes (duplicates, missing ids) the stack trace is never read, skip filling it in
+    protected ResourceNotFoundException(String message, boolean writableStackTrace){
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,241 @@
+package com.javaguides.springboot.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.event.EmployeeChangedEvent;
+import com.javaguides.springboot.event.EmployeesUpsertedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed employee changes out to Server-Sent Events subscribers.
+ * <p>
+ * Each change is serialized once and kept in a ring buffer so reconnecting clients can resume from
+ * {@code Last-Event-ID}. Every subscriber owns a bounded queue drained by a small shared pool; a
+ * subscriber whose queue overflows is disconnected instead of slowing down the others.
+ * <p>
+ * {@link SseEmitter#send} blocks while the client's socket is full, so the writes themselves run on
+ * a separate writer pool and a delivery thread waits at most {@code employees.feed.send-timeout} for
+ * each. A client that stalls past it is completed and its writer thread left to the container's own
+ * write timeout, the delivery threads move on to the other subscribers.
+ */
+@Component
+public class EmployeeChangeFeed {
+
+    static final String RESET_EVENT = "RESET";
+
+    private final ObjectMapper objectMapper;
+    private final FeedEvent[] history;
+    private final int subscriberBuffer;
+    private final long emitterTimeoutMillis;
+    private final long sendTimeoutMillis;
+    private final ExecutorService deliveryExecutor;
+    private final ExecutorService writeExecutor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // guarded by this
+    private long lastEventId;
+
+    public EmployeeChangeFeed(ObjectMapper objectMapper,
+                              @Value("${employees.feed.history-size:1024}") int historySize,
+                              @Value("${employees.feed.subscriber-buffer:256}") int subscriberBuffer,
+                              @Value("${employees.feed.delivery-threads:4}") int deliveryThreads,
+                              @Value("${employees.feed.emitter-timeout:30m}") Duration emitterTimeout,
+                              @Value("${employees.feed.send-timeout:5s}") Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.history = new FeedEvent[historySize];
+        this.subscriberBuffer = subscriberBuffer;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, daemonThreads("employee-feed-"));
+        // one thread per write in flight: the delivery threads plus one per stalled client
+        this.writeExecutor = Executors.newCachedThreadPool(daemonThreads("employee-feed-write-"));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) throws JsonProcessingException {
+        String data = objectMapper.writeValueAsString(
+                event.employee() != null ? event.employee() : Map.of("id", event.employeeId()));
+        publish(event.type().name(), data);
+    }
+
+    /**
+     * A bulk upsert reaches subscribers as a single {@value #RESET_EVENT}, the rows it touched are
+     * not listed: clients reload as they do after a gap.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesUpserted(EmployeesUpsertedEvent event) throws JsonProcessingException {
+        publish(RESET_EVENT, objectMapper.writeValueAsString(event));
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = subscribe(lastEventId, new EmitterSink(emitter));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    synchronized Subscriber subscribe(Long resumeFrom, Sink sink) {
+        Subscriber subscriber = new Subscriber(sink);
+        if (resumeFrom != null && resumeFrom != lastEventId) {
+            long missed = lastEventId - resumeFrom;
+            // ids restart with the application, one ahead of ours was issued by an earlier run
+            if (resumeFrom < 0 || missed < 0 || missed > history.length || missed > subscriberBuffer)
+                // the gap is not retained, tell the client to reload instead of replaying
+                subscriber.offer(new FeedEvent(lastEventId, RESET_EVENT, "{}"));
+            else
+                for (long id = resumeFrom + 1; id <= lastEventId; id++)
+                    subscriber.offer(history[(int) (id % history.length)]);
+        }
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    synchronized void publish(String name, String data) {
+        FeedEvent event = new FeedEvent(++lastEventId, name, data);
+        history[(int) (event.id() % history.length)] = event;
+        for (Subscriber subscriber : subscribers)
+            subscriber.offer(event);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        deliveryExecutor.shutdownNow();
+        writeExecutor.shutdown();
+    }
+
+    record FeedEvent(long id, String name, String data) {
+    }
+
+    interface Sink {
+        void send(FeedEvent event) throws IOException;
+
+        void close();
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+
+        @Override
+        public void send(FeedEvent event) throws IOException {
+            emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.name()).data(event.data()));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+
+    final class Subscriber {
+
+        private final Sink sink;
+        private final ArrayBlockingQueue<FeedEvent> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Sink sink) {
+            this.sink = sink;
+        }
+
+        private void offer(FeedEvent event) {
+            if (closed.get())
+                return;
+            if (!queue.offer(event)) {
+                // slow consumer: drop it rather than buffering without bound
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true))
+                deliveryExecutor.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                FeedEvent event;
+                while (!closed.get() && (event = queue.poll()) != null)
+                    send(event);
+            } catch (ExecutionException | TimeoutException | RuntimeException e) {
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // an event may have been queued after the last poll but before the flag was cleared
+            if (!closed.get() && !queue.isEmpty())
+                schedule();
+        }
+
+        private void send(FeedEvent event) throws ExecutionException, TimeoutException, InterruptedException {
+            Future<?> write = writeExecutor.submit(() -> {
+                sink.send(event);
+                return null;
+            });
+            try {
+                write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // a stalled client keeps only this writer thread, not a delivery thread
+                write.cancel(true);
+                throw e;
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                queue.clear();
+                // completing an emitter waits for a write in progress, never do that on the caller
+                try {
+                    writeExecutor.execute(sink::close);
+                } catch (RejectedExecutionException e) {
+                    sink.close();
+                }
+            }
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.javaguides.springboot.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.exception.IdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicted store of responses keyed by the client supplied {@code Idempotency-Key}.
+ * Stored responses are spread over lock stripes that are only held for the lookup. A duplicate
+ * arriving while the first request is still running waits on that request's in-flight future and
+ * is answered with the stored response instead of reaching the service; other keys never wait.
+ * <p>
+ * Every entry carries a SHA-256 fingerprint of the operation (method and path) and the request
+ * body. A key reused for a different request is rejected with
+ * {@link IdempotencyKeyReusedException} rather than answered with another request's response.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private final ObjectMapper objectMapper;
+    private final Stripe[] stripes;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${employees.idempotency.ttl:10m}") Duration ttl,
+                            @Value("${employees.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${employees.idempotency.stripes:64}") int stripeCount) {
+        this.objectMapper = objectMapper;
+        this.ttlNanos = ttl.toNanos();
+        this.stripes = new Stripe[stripeCount];
+        int stripeCapacity = Math.max(1, maxEntries / stripeCount);
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new Stripe(stripeCapacity);
+    }
+
+    /**
+     * Runs {@code action} once per {@code key} within the TTL and replays its successful response
+     * afterwards, as long as the key comes back with the same {@code operation} (such as
+     * {@code "PUT update/1"}) and {@code body}. Requests without a key always run the action.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used for another operation or body
+     */
+    public <T> ResponseEntity<T> execute(String operation, String key, Object body, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank())
+            return action.get();
+
+        byte[] fingerprint = fingerprint(operation, body);
+        Stripe stripe = stripes[Math.floorMod(spread(key.hashCode()), stripes.length)];
+        while (true) {
+            ResponseEntity<T> stored = stripe.get(key, fingerprint);
+            if (stored != null)
+                return stored;
+
+            InFlight running = new InFlight(fingerprint, new CompletableFuture<>());
+            InFlight first = inFlight.putIfAbsent(key, running);
+            if (first == null)
+                return run(key, stripe, running, action);
+            if (!Arrays.equals(first.fingerprint, fingerprint))
+                throw new IdempotencyKeyReusedException(key);
+            // a failed first request stores nothing, the next duplicate runs the action itself
+            first.done.join();
+        }
+    }
+
+    private <T> ResponseEntity<T> run(String key, Stripe stripe, InFlight running, Supplier<ResponseEntity<T>> action) {
+        try {
+            // the request before may have completed between the lookup and taking over the key
+            ResponseEntity<T> stored = stripe.get(key, running.fingerprint);
+            if (stored != null)
+                return stored;
+
+            ResponseEntity<T> response = action.get();
+            if (response.getStatusCode().is2xxSuccessful())
+                stripe.put(key, new Entry(running.fingerprint, response, System.nanoTime() + ttlNanos));
+            return response;
+        } finally {
+            inFlight.remove(key, running);
+            running.done.complete(null);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private byte[] fingerprint(String operation, Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return digest.digest(objectMapper.writeValueAsBytes(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required JDK algorithm", e);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Entry(byte[] fingerprint, ResponseEntity<?> response, long expiresAt) {
+    }
+
+    private record InFlight(byte[] fingerprint, CompletableFuture<Void> done) {
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries;
+
+        private Stripe(int capacity) {
+            // insertion order keeps the oldest (and therefore first to expire) entry at the head
+            this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> ResponseEntity<T> get(String key, byte[] fingerprint) {
+            lock.lock();
+            try {
+                evictExpired(System.nanoTime());
+                Entry entry = entries.get(key);
+                if (entry == null)
+                    return null;
+                if (!Arrays.equals(entry.fingerprint, fingerprint))
+                    throw new IdempotencyKeyReusedException(key);
+                return (ResponseEntity<T>) entry.response;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(String key, Entry entry) {
+            lock.lock();
+            try {
+                entries.put(key, entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void evictExpired(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext() && iterator.next().expiresAt - now <= 0)
+                iterator.remove();
+        }
+    }
+}
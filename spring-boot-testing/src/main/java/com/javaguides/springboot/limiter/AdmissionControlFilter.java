@@ -0,0 +1,115 @@
+package com.javaguides.springboot.limiter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sheds load in front of {@code EmployeeController} before requests can queue on Tomcat threads
+ * and on the connection pool. Reads and writes get separate adaptive limits; requests over the
+ * limit are rejected immediately with 503 and a {@code Retry-After} hint.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/employees/";
+    // long-lived event streams would pin a read permit for their whole lifetime
+    private static final String STREAM_PATH = API_PREFIX + "stream";
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final AimdLimiter readLimiter;
+    private final AimdLimiter writeLimiter;
+    private final String retryAfterSeconds;
+
+    public AdmissionControlFilter(@Value("${employees.admission.read-limit:64}") int readLimit,
+                                  @Value("${employees.admission.write-limit:16}") int writeLimit,
+                                  @Value("${employees.admission.max-limit:256}") int maxLimit,
+                                  @Value("${employees.admission.latency-threshold:250ms}") Duration latencyThreshold,
+                                  @Value("${employees.admission.retry-after:1s}") Duration retryAfter) {
+        this.readLimiter = new AimdLimiter(readLimit, 1, maxLimit, latencyThreshold, BACKOFF_RATIO);
+        this.writeLimiter = new AimdLimiter(writeLimit, 1, maxLimit, latencyThreshold, BACKOFF_RATIO);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith(API_PREFIX) || uri.equals(STREAM_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AimdLimiter limiter = isRead(request) ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(limiter, start));
+                released = true;
+            }
+        } finally {
+            if (!released)
+                limiter.release(System.nanoTime() - start, isOverloaded(response));
+        }
+    }
+
+    public AimdLimiter getReadLimiter() {
+        return readLimiter;
+    }
+
+    public AimdLimiter getWriteLimiter() {
+        return writeLimiter;
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static boolean isOverloaded(HttpServletResponse response) {
+        int status = response.getStatus();
+        return status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    private record ReleasingAsyncListener(AimdLimiter limiter, long start) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(System.nanoTime() - start, isOverloaded((HttpServletResponse) event.getSuppliedResponse()));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows the timeout and releases the permit; nothing to do here
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete follows the error and releases the permit; nothing to do here
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.javaguides.springboot.limiter;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limit driven by observed latency (additive increase, multiplicative decrease).
+ * Every response faster than the threshold grows the limit by {@code 1/limit}, i.e. by roughly one
+ * per full window, while a slow or dropped response shrinks it by {@code backoffRatio}.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit)
+            return false;
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Returns the permit taken by {@link #tryAcquire()} and feeds the observed latency back into the limit.
+     * {@code dropped} marks responses that failed because of overload (timeouts, pool exhaustion).
+     */
+    public synchronized void release(long latencyNanos, boolean dropped) {
+        // only grow while the current window is actually in use, otherwise idle periods inflate the limit
+        boolean utilized = inFlight * 2 >= limit;
+        inFlight--;
+        if (dropped || latencyNanos > latencyThresholdNanos)
+            limit = Math.max(minLimit, limit * backoffRatio);
+        else if (utilized)
+            limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,597 @@
+package com.javaguides.springboot.memory;
+
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link EmployeeRepository} held in memory, active with the {@code in-memory} profile.
+ * <p>
+ * Rows live in a primary index on id, ordered like the InnoDB clustered index, plus a unique
+ * index on email and a non-unique one on (firstName, lastName). Email and name lookups ignore
+ * case, as the MySQL collation does. Writes are serialized; reads never lock and re-check the
+ * row they reach through a secondary index, so a concurrent write can only make them miss.
+ * <p>
+ * Stored rows are private copies: callers may modify what they get back, and changes only take
+ * effect through {@code save}. There are no transactions, a rollback does not undo writes.
+ * Query-by-example scans the rows and applies the probe the way the JPA query built from it would.
+ */
+public class InMemoryEmployeeRepository implements EmployeeRepository {
+
+    // the entity attributes a query-by-example probe constrains, in declaration order
+    private static final Map<String, Function<Employee, Object>> PROBE_PROPERTIES = probeProperties();
+
+    private final ConcurrentSkipListMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Name, Set<Long>> idsByName = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    @Override
+    public Optional<Employee> findByEmail(String email) {
+        if (email == null)
+            return Optional.empty();
+        Long id = idsByEmail.get(key(email));
+        return Optional.ofNullable(id == null ? null : employees.get(id))
+                .filter(employee -> key(employee.getEmail()).equals(key(email)))
+                .map(InMemoryEmployeeRepository::copy);
+    }
+
+    @Override
+    public Stream<String> streamAllEmails() {
+        return employees.values().stream().map(Employee::getEmail);
+    }
+
+    @Override
+    public List<Employee> findByUpdatedAtAfter(Instant mark) {
+        return employees.values().stream()
+                .filter(employee -> employee.getUpdatedAt().isAfter(mark))
+                .map(InMemoryEmployeeRepository::copy)
+                .toList();
+    }
+
+    @Override
+    public Stream<Long> streamAllIds() {
+        return employees.keySet().stream();
+    }
+
+    @Override
+    public Employee findByJPQL(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    @Override
+    public Employee findByJPQLNamedParams(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    @Override
+    public Employee findByNativeQuery(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    @Override
+    public Employee findByNativeQueryNamedParams(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    private Employee findByName(String firstName, String lastName) {
+        Name name = Name.of(firstName, lastName);
+        List<Employee> matches = idsByName.getOrDefault(name, Set.of()).stream()
+                .map(employees::get)
+                .filter(employee -> employee != null && Name.of(employee).equals(name))
+                .toList();
+        if (matches.size() > 1)
+            throw new IncorrectResultSizeDataAccessException(1, matches.size());
+        return matches.isEmpty() ? null : copy(matches.get(0));
+    }
+
+    @Override
+    public <S extends Employee> S save(S employee) {
+        synchronized (writeLock) {
+            Employee current = employee.getId() == 0 ? null : employees.get(employee.getId());
+            if (current == null) {
+                long id = sequence.incrementAndGet();
+                insert(id, employee);
+                // like Hibernate: a new entity is persisted itself and gets the generated id, a
+                // detached one with an unknown id is merged into a copy and left as it was
+                if (employee.getId() == 0) {
+                    employee.setId(id);
+                    return employee;
+                }
+                @SuppressWarnings("unchecked")
+                S saved = (S) copy(employee).toBuilder().id(id).build();
+                return saved;
+            }
+            update(current, employee);
+            @SuppressWarnings("unchecked")
+            S merged = (S) copy(employee);
+            return merged;
+        }
+    }
+
+    @Override
+    public UpsertedEmployees upsertByEmail(Collection<Employee> upserts) {
+        List<Employee> inserted = new ArrayList<>();
+        List<Employee> updated = new ArrayList<>();
+        int unchanged = 0;
+        synchronized (writeLock) {
+            for (Employee employee : upserts) {
+                Long id = idsByEmail.get(key(employee.getEmail()));
+                Employee current = id == null ? null : employees.get(id);
+                if (current == null) {
+                    long newId = sequence.incrementAndGet();
+                    insert(newId, employee);
+                    employee.setId(newId);
+                    inserted.add(employee);
+                } else if (!Objects.equals(current.getFirstName(), employee.getFirstName())
+                        || !Objects.equals(current.getLastName(), employee.getLastName())) {
+                    employee.setId(current.getId());
+                    update(current, current.toBuilder()
+                            .firstName(employee.getFirstName())
+                            .lastName(employee.getLastName())
+                            .build());
+                    updated.add(employee);
+                } else {
+                    unchanged++;
+                }
+            }
+        }
+        return new UpsertedEmployees(inserted, updated, unchanged);
+    }
+
+    // callers hold writeLock
+    private void insert(long id, Employee employee) {
+        checkColumns(employee);
+        Long existing = idsByEmail.putIfAbsent(key(employee.getEmail()), id);
+        if (existing != null)
+            throw duplicateEmail(employee.getEmail());
+        employees.put(id, copy(employee).toBuilder().id(id).updatedAt(Instant.now()).build());
+        idsByName.computeIfAbsent(Name.of(employee), name -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    // callers hold writeLock
+    private void update(Employee current, Employee employee) {
+        checkColumns(employee);
+        String email = key(employee.getEmail());
+        if (!email.equals(key(current.getEmail()))) {
+            Long existing = idsByEmail.putIfAbsent(email, current.getId());
+            if (existing != null)
+                throw duplicateEmail(employee.getEmail());
+            idsByEmail.remove(key(current.getEmail()), current.getId());
+        }
+        // like the on update clause of updated_at, a write that changes nothing keeps the timestamp
+        boolean changed = !Objects.equals(current.getEmail(), employee.getEmail())
+                || !Objects.equals(current.getFirstName(), employee.getFirstName())
+                || !Objects.equals(current.getLastName(), employee.getLastName());
+        Employee stored = copy(employee).toBuilder()
+                .id(current.getId())
+                .updatedAt(changed ? Instant.now() : current.getUpdatedAt())
+                .build();
+        employees.put(current.getId(), stored);
+        if (!Name.of(current).equals(Name.of(stored))) {
+            removeName(current);
+            idsByName.computeIfAbsent(Name.of(stored), name -> ConcurrentHashMap.newKeySet()).add(current.getId());
+        }
+    }
+
+    private void removeName(Employee employee) {
+        idsByName.computeIfPresent(Name.of(employee), (name, ids) -> {
+            ids.remove(employee.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static void checkColumns(Employee employee) {
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null)
+            throw new DataIntegrityViolationException("Employee columns are not nullable: " + employee.getId());
+    }
+
+    private static DataIntegrityViolationException duplicateEmail(String email) {
+        return new DataIntegrityViolationException("Duplicate entry '" + email + "' for key 'employees.uk_employees_email'");
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S employee : entities)
+            saved.add(save(employee));
+        return saved;
+    }
+
+    @Override
+    public Optional<Employee> findById(Long id) {
+        return Optional.ofNullable(employees.get(id)).map(InMemoryEmployeeRepository::copy);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return employees.containsKey(id);
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        return employees.values().stream().map(InMemoryEmployeeRepository::copy).toList();
+    }
+
+    @Override
+    public List<Employee> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .distinct()
+                .map(employees::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryEmployeeRepository::copy)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return employees.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        synchronized (writeLock) {
+            Employee removed = employees.remove(id);
+            if (removed != null) {
+                idsByEmail.remove(key(removed.getEmail()), id);
+                removeName(removed);
+            }
+        }
+    }
+
+    @Override
+    public void delete(Employee employee) {
+        deleteById(employee.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Employee> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized (writeLock) {
+            employees.clear();
+            idsByEmail.clear();
+            idsByName.clear();
+        }
+    }
+
+    @Override
+    public List<Employee> findAll(Sort sort) {
+        return employees.values().stream()
+                .sorted(comparator(sort))
+                .map(InMemoryEmployeeRepository::copy)
+                .toList();
+    }
+
+    @Override
+    public Page<Employee> findAll(Pageable pageable) {
+        List<Employee> page = employees.values().stream()
+                .sorted(comparator(pageable.getSort()))
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .map(InMemoryEmployeeRepository::copy)
+                .toList();
+        return new PageImpl<>(page, pageable, employees.size());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Employee> comparator(Sort sort) {
+        Comparator<Employee> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            EmployeeField field = EmployeeField.fromAttribute(order.getProperty());
+            Comparator<Employee> byField = Comparator.comparing(employee -> (Comparable) field.valueOf(employee),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byField : byField.reversed());
+        }
+        return comparator;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Set<EmployeeField> fields) {
+        return employees.values().stream().map(employee -> project(employee, fields)).toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(long id, Set<EmployeeField> fields) {
+        return Optional.ofNullable(employees.get(id)).map(employee -> project(employee, fields));
+    }
+
+    private static Map<String, Object> project(Employee employee, Set<EmployeeField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+        for (EmployeeField field : EmployeeField.values())
+            if (fields.contains(field))
+                row.put(field.attribute(), field.valueOf(employee));
+        return row;
+    }
+
+    @Override
+    public void flush() {
+        // every write is visible immediately
+    }
+
+    @Override
+    public <S extends Employee> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Employee> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public Employee getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Employee getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Employee getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find Employee with id " + id));
+    }
+
+    @Override
+    public <S extends Employee> Optional<S> findOne(Example<S> example) {
+        return Optional.ofNullable(new FetchableEmployees<>(example, Sort.unsorted(), Integer.MAX_VALUE).oneValue());
+    }
+
+    @Override
+    public <S extends Employee> List<S> findAll(Example<S> example) {
+        return findAll(example, Sort.unsorted());
+    }
+
+    @Override
+    public <S extends Employee> List<S> findAll(Example<S> example, Sort sort) {
+        return matching(example, sort).map(InMemoryEmployeeRepository::<S>copyAs).toList();
+    }
+
+    @Override
+    public <S extends Employee> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return page(example, pageable.getSort(), pageable);
+    }
+
+    @Override
+    public <S extends Employee> long count(Example<S> example) {
+        return matching(example, Sort.unsorted()).count();
+    }
+
+    @Override
+    public <S extends Employee> boolean exists(Example<S> example) {
+        return matching(example, Sort.unsorted()).findAny().isPresent();
+    }
+
+    @Override
+    public <S extends Employee, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new FetchableEmployees<>(example, Sort.unsorted(), Integer.MAX_VALUE));
+    }
+
+    // stored rows, callers copy what they hand out
+    private Stream<Employee> matching(Example<? extends Employee> example, Sort sort) {
+        Stream<Employee> matches = employees.values().stream().filter(matcher(example));
+        return sort.isSorted() ? matches.sorted(comparator(sort)) : matches;
+    }
+
+    private <S extends Employee> Page<S> page(Example<S> example, Sort sort, Pageable pageable) {
+        List<Employee> matches = matching(example, sort).toList();
+        List<S> page = matches.stream()
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .map(InMemoryEmployeeRepository::<S>copyAs)
+                .toList();
+        return new PageImpl<>(page, pageable, matches.size());
+    }
+
+    /**
+     * Like the JPA predicate, every probe property the matcher does not ignore is compared, the
+     * primitive id included, so probes usually ignore {@code "id"}. Strings always match ignoring
+     * case, as they would under the MySQL collation.
+     */
+    private static Predicate<Employee> matcher(Example<? extends Employee> example) {
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Predicate<Employee>> predicates = new ArrayList<>();
+        PROBE_PROPERTIES.forEach((path, property) -> {
+            if (accessor.isIgnoredPath(path))
+                return;
+            Object value = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(property.apply(example.getProbe())))
+                    .orElse(null);
+            if (value == null) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE)
+                    predicates.add(employee -> property.apply(employee) == null);
+            } else if (value instanceof String probe) {
+                BiPredicate<String, String> matches = stringMatcher(accessor.getStringMatcherForPath(path));
+                predicates.add(employee -> property.apply(employee) instanceof String stored
+                        && matches.test(key(stored), key(probe)));
+            } else {
+                predicates.add(employee -> value.equals(property.apply(employee)));
+            }
+        });
+        if (example.getMatcher().isAllMatching())
+            return employee -> predicates.stream().allMatch(predicate -> predicate.test(employee));
+        return employee -> predicates.isEmpty() || predicates.stream().anyMatch(predicate -> predicate.test(employee));
+    }
+
+    private static BiPredicate<String, String> stringMatcher(ExampleMatcher.StringMatcher matcher) {
+        return switch (matcher) {
+            case DEFAULT, EXACT -> String::equals;
+            case STARTING -> String::startsWith;
+            case ENDING -> String::endsWith;
+            case CONTAINING -> String::contains;
+            case REGEX -> throw new IllegalArgumentException("Unsupported StringMatcher " + matcher);
+        };
+    }
+
+    private static Map<String, Function<Employee, Object>> probeProperties() {
+        Map<String, Function<Employee, Object>> properties = new LinkedHashMap<>();
+        for (EmployeeField field : EmployeeField.values())
+            properties.put(field.attribute(), field::valueOf);
+        properties.put("updatedAt", Employee::getUpdatedAt);
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * {@link #findBy} over the stored rows. As with JPA, {@code project} is only a fetch hint and
+     * results are whole employees; {@code as} accepts the probe type and its supertypes only.
+     */
+    private final class FetchableEmployees<S extends Employee> implements FluentQuery.FetchableFluentQuery<S> {
+
+        private final Example<S> example;
+        private final Sort sort;
+        private final int limit;
+
+        private FetchableEmployees(Example<S> example, Sort sort, int limit) {
+            this.example = example;
+            this.sort = sort;
+            this.limit = limit;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> sortBy(Sort sort) {
+            return new FetchableEmployees<>(example, this.sort.and(sort), limit);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> limit(int limit) {
+            if (limit < 0)
+                throw new IllegalArgumentException("Limit must not be negative: " + limit);
+            return new FetchableEmployees<>(example, sort, limit);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> FluentQuery.FetchableFluentQuery<R> as(Class<R> resultType) {
+            if (!resultType.isAssignableFrom(example.getProbeType()))
+                throw new UnsupportedOperationException("Projections are not supported by the in-memory repository: " + resultType);
+            return (FluentQuery.FetchableFluentQuery<R>) this;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public S oneValue() {
+            List<S> matches = stream().limit(2).toList();
+            if (matches.size() > 1)
+                throw new IncorrectResultSizeDataAccessException(1, matches.size());
+            return matches.isEmpty() ? null : matches.get(0);
+        }
+
+        @Override
+        public S firstValue() {
+            return stream().findFirst().orElse(null);
+        }
+
+        @Override
+        public List<S> all() {
+            return stream().toList();
+        }
+
+        @Override
+        public Page<S> page(Pageable pageable) {
+            return InMemoryEmployeeRepository.this.page(example, sort.and(pageable.getSort()), pageable);
+        }
+
+        @Override
+        public Stream<S> stream() {
+            return matching(example, sort).limit(limit).map(InMemoryEmployeeRepository::<S>copyAs);
+        }
+
+        @Override
+        public long count() {
+            return InMemoryEmployeeRepository.this.count(example);
+        }
+
+        @Override
+        public boolean exists() {
+            return InMemoryEmployeeRepository.this.exists(example);
+        }
+    }
+
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends Employee> S copyAs(Employee employee) {
+        return (S) copy(employee);
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Name(String firstName, String lastName) {
+
+        static Name of(String firstName, String lastName) {
+            return new Name(key(firstName), key(lastName));
+        }
+
+        static Name of(Employee employee) {
+            return of(employee.getFirstName(), employee.getLastName());
+        }
+    }
+}
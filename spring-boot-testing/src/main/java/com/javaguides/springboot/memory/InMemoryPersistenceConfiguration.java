@@ -0,0 +1,32 @@
+package com.javaguides.springboot.memory;
+
+import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.repository.ResourcelessTransactionManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Replaces MySQL and JPA with {@link InMemoryEmployeeRepository} under the {@code in-memory}
+ * profile, which also switches off the DataSource and JPA auto-configuration (see
+ * {@code application.yml}). A test fixture for fast full-context tests: the store starts empty,
+ * nothing loads it and it is gone with the JVM, so the profile is not meant to serve traffic.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("in-memory")
+public class InMemoryPersistenceConfiguration {
+
+    @Bean
+    public EmployeeRepository employeeRepository() {
+        return new InMemoryEmployeeRepository();
+    }
+
+    /**
+     * There are no transactions, a rollback does not undo writes.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new ResourcelessTransactionManager();
+    }
+}
@@ -1,15 +1,23 @@
 package com.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = "uk_employees_email", columnNames = "email"),
+        indexes = {
+                @Index(name = "idx_employees_name", columnList = "firstName, lastName"),
+                @Index(name = "idx_employees_updated_at", columnList = "updatedAt")
+        })
 public class Employee {
 
     @Id
@@ -23,4 +31,10 @@ public class Employee {
     @Column(nullable = false)
     private String email;
 
+    // set by MySQL on insert and on every update that changes a column, whichever path wrote the row
+    @JsonIgnore
+    @Column(insertable = false, updatable = false,
+            columnDefinition = "timestamp(6) not null default current_timestamp(6) on update current_timestamp(6)")
+    private Instant updatedAt;
+
 }
@@ -0,0 +1,46 @@
+package com.javaguides.springboot.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The {@link Employee} attributes a client can pick with {@code fields=}. The JSON name and the
+ * entity attribute name are the same.
+ */
+public enum EmployeeField {
+
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    EMAIL("email");
+
+    public static final Set<EmployeeField> ALL = Collections.unmodifiableSet(EnumSet.allOf(EmployeeField.class));
+
+    private final String attribute;
+
+    EmployeeField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public Object valueOf(Employee employee) {
+        return switch (this) {
+            case ID -> employee.getId();
+            case FIRST_NAME -> employee.getFirstName();
+            case LAST_NAME -> employee.getLastName();
+            case EMAIL -> employee.getEmail();
+        };
+    }
+
+    public static EmployeeField fromAttribute(String attribute) {
+        return Arrays.stream(values())
+                .filter(field -> field.attribute.equals(attribute))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown employee field: " + attribute));
+    }
+}
@@ -0,0 +1,33 @@
+package com.javaguides.springboot.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One slot of a multi-get response: {@code employee} is {@code null} when {@code found} is false.
+ */
+public record EmployeeLookup(long id, boolean found, Employee employee) {
+
+    public static EmployeeLookup hit(long id, Employee employee) {
+        return new EmployeeLookup(id, true, employee);
+    }
+
+    public static EmployeeLookup miss(long id) {
+        return new EmployeeLookup(id, false, null);
+    }
+
+    /**
+     * Pairs each requested id with the employee found for it, in request order.
+     */
+    public static List<EmployeeLookup> of(List<Long> ids, List<Optional<Employee>> employees) {
+        List<EmployeeLookup> lookups = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            long id = ids.get(i);
+            lookups.add(employees.get(i)
+                    .map(employee -> hit(id, employee))
+                    .orElseGet(() -> miss(id)));
+        }
+        return lookups;
+    }
+}
@@ -0,0 +1,14 @@
+package com.javaguides.springboot.model;
+
+/**
+ * Outcome of a bulk upsert: how many employees were created, had their names changed, or were
+ * already up to date.
+ */
+public record EmployeeUpsertResult(long inserted, long updated, long unchanged) {
+
+    public static final EmployeeUpsertResult EMPTY = new EmployeeUpsertResult(0, 0, 0);
+
+    public EmployeeUpsertResult plus(long inserted, long updated, long unchanged) {
+        return new EmployeeUpsertResult(this.inserted + inserted, this.updated + updated, this.unchanged + unchanged);
+    }
+}
@@ -0,0 +1,22 @@
+package com.javaguides.springboot.repository;
+
+import com.javaguides.springboot.model.EmployeeField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads of a subset of the {@code Employee} columns, one map per row keyed by attribute name in
+ * {@link EmployeeField} order. Only the requested columns are selected and no entity is built.
+ * <p>
+ * Spring Data's {@code Class}-typed dynamic projections would need a projection type for every
+ * combination of fields, so the select list is assembled with the Criteria API instead.
+ */
+public interface EmployeeProjectionRepository {
+
+    List<Map<String, Object>> findAllProjected(Set<EmployeeField> fields);
+
+    Optional<Map<String, Object>> findProjectedById(long id, Set<EmployeeField> fields);
+}
@@ -0,0 +1,61 @@
+package com.javaguides.springboot.repository;
+
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class EmployeeProjectionRepositoryImpl implements EmployeeProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Set<EmployeeField> fields) {
+        Set<EmployeeField> selected = EnumSet.copyOf(fields);
+        CriteriaQuery<Tuple> query = select(selected);
+        return entityManager.createQuery(query).getResultStream()
+                .map(tuple -> toMap(tuple, selected))
+                .toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(long id, Set<EmployeeField> fields) {
+        Set<EmployeeField> selected = EnumSet.copyOf(fields);
+        CriteriaQuery<Tuple> query = select(selected);
+        Root<?> employee = query.getRoots().iterator().next();
+        query.where(entityManager.getCriteriaBuilder().equal(employee.get(EmployeeField.ID.attribute()), id));
+        return entityManager.createQuery(query).getResultStream()
+                .findFirst()
+                .map(tuple -> toMap(tuple, selected));
+    }
+
+    private CriteriaQuery<Tuple> select(Set<EmployeeField> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> employee.get(field.attribute()).alias(field.attribute()))
+                .toList();
+        return query.multiselect(selections);
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, Set<EmployeeField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2);
+        for (EmployeeField field : fields)
+            row.put(field.attribute(), tuple.get(field.attribute()));
+        return row;
+    }
+}
@@ -1,16 +1,35 @@
 package com.javaguides.springboot.repository;
 
 import com.javaguides.springboot.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeUpsertRepository,
+        EmployeeProjectionRepository {
 
     Optional<Employee> findByEmail(String email);
 
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select e.email from Employee e")
+    Stream<String> streamAllEmails();
+
+    // rows inserted or changed after the mark, through idx_employees_updated_at
+    List<Employee> findByUpdatedAtAfter(Instant mark);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select e.id from Employee e")
+    Stream<Long> streamAllIds();
+
     @Query("select e from Employee e " +
             "where e.firstName = ?1 " +
             "and e.lastName = ?2 ")
@@ -0,0 +1,23 @@
+package com.javaguides.springboot.repository;
+
+import com.javaguides.springboot.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk writes keyed on {@code email}, outside of the persistence context.
+ */
+public interface EmployeeUpsertRepository {
+
+    /**
+     * Inserts the employees whose email is not stored yet and updates the names of those whose
+     * first or last name changed, in one {@code INSERT ... ON DUPLICATE KEY UPDATE}. Rows that are
+     * already up to date are not written. Emails must be distinct; ids are set on the returned
+     * employees. Runs in the caller's transaction.
+     */
+    UpsertedEmployees upsertByEmail(Collection<Employee> employees);
+
+    record UpsertedEmployees(List<Employee> inserted, List<Employee> updated, int unchanged) {
+    }
+}
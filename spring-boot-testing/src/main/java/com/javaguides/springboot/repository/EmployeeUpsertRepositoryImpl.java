@@ -0,0 +1,97 @@
+package com.javaguides.springboot.repository;
+
+import com.javaguides.springboot.model.Employee;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+@RequiredArgsConstructor
+class EmployeeUpsertRepositoryImpl implements EmployeeUpsertRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public UpsertedEmployees upsertByEmail(Collection<Employee> employees) {
+        if (employees.isEmpty())
+            return new UpsertedEmployees(List.of(), List.of(), 0);
+
+        Map<String, Employee> stored = findByEmails(employees);
+        List<Employee> inserted = new ArrayList<>();
+        List<Employee> updated = new ArrayList<>();
+        for (Employee employee : employees) {
+            Employee current = stored.get(key(employee.getEmail()));
+            if (current == null) {
+                inserted.add(employee);
+            } else if (!Objects.equals(current.getFirstName(), employee.getFirstName())
+                    || !Objects.equals(current.getLastName(), employee.getLastName())) {
+                employee.setId(current.getId());
+                updated.add(employee);
+            }
+        }
+        int unchanged = employees.size() - inserted.size() - updated.size();
+
+        List<Employee> written = new ArrayList<>(inserted.size() + updated.size());
+        written.addAll(inserted);
+        written.addAll(updated);
+        if (!written.isEmpty())
+            jdbcTemplate.update(upsertSql(written.size()), parameters(written));
+
+        // multi-row inserts do not reliably report generated keys, read them back by email
+        if (!inserted.isEmpty()) {
+            Map<String, Employee> insertedRows = findByEmails(inserted);
+            for (Employee employee : inserted)
+                employee.setId(insertedRows.get(key(employee.getEmail())).getId());
+        }
+        return new UpsertedEmployees(inserted, updated, unchanged);
+    }
+
+    private Map<String, Employee> findByEmails(Collection<Employee> employees) {
+        String sql = "select id, first_name, last_name, email from employees where email in ("
+                + String.join(", ", Collections.nCopies(employees.size(), "?")) + ")";
+        Map<String, Employee> stored = new HashMap<>(employees.size() * 2);
+        jdbcTemplate.query(sql, resultSet -> {
+            Employee employee = Employee.builder()
+                    .id(resultSet.getLong("id"))
+                    .firstName(resultSet.getString("first_name"))
+                    .lastName(resultSet.getString("last_name"))
+                    .email(resultSet.getString("email"))
+                    .build();
+            stored.put(key(employee.getEmail()), employee);
+        }, employees.stream().map(Employee::getEmail).toArray());
+        return stored;
+    }
+
+    // the email column uses a case-insensitive collation, match it when pairing rows
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder("insert into employees (first_name, last_name, email) values ");
+        for (int row = 0; row < rows; row++)
+            sql.append(row == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        // a row inserted concurrently since findByEmails still ends up with the incoming names
+        return sql.append(" as incoming on duplicate key update ")
+                .append("first_name = incoming.first_name, last_name = incoming.last_name")
+                .toString();
+    }
+
+    private static Object[] parameters(List<Employee> employees) {
+        Object[] parameters = new Object[employees.size() * 3];
+        int parameter = 0;
+        for (Employee employee : employees) {
+            parameters[parameter++] = employee.getFirstName();
+            parameters[parameter++] = employee.getLastName();
+            parameters[parameter++] = employee.getEmail();
+        }
+        return parameters;
+    }
+}
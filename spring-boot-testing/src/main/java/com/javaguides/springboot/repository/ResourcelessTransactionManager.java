@@ -0,0 +1,30 @@
+package com.javaguides.springboot.repository;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Keeps {@code @Transactional}, {@code TransactionTemplate} and after-commit listeners working for
+ * repositories that are not backed by the one JPA DataSource; there is nothing to commit or roll
+ * back at this level.
+ */
+public class ResourcelessTransactionManager extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}
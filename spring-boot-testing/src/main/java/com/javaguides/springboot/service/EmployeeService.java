@@ -1,14 +1,22 @@
 package com.javaguides.springboot.service;
 
 import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.model.EmployeeUpsertResult;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
     List<Employee> getAllEmployees();
+    List<Map<String, Object>> getAllEmployees(Set<EmployeeField> fields);
     Optional<Employee> getEmployeeById(long id);
+    Optional<Map<String, Object>> getEmployeeById(long id, Set<EmployeeField> fields);
+    List<Optional<Employee>> getEmployeesByIds(List<Long> ids);
     Employee updateEmployee(Employee employee);
     void deleteEmployee(long id);
+    EmployeeUpsertResult upsertEmployees(List<Employee> employees);
 }
@@ -1,48 +1,166 @@
 package com.javaguides.springboot.service.impl;
 
-import com.javaguides.springboot.exception.ResourceNotFoundException;
+import com.javaguides.springboot.bloom.KnownEmailFilter;
+import com.javaguides.springboot.coalescing.EmployeeReadCoalescer;
+import com.javaguides.springboot.event.EmployeeChangedEvent;
+import com.javaguides.springboot.event.EmployeesUpsertedEvent;
+import com.javaguides.springboot.exception.DuplicateEmployeeException;
 import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.model.EmployeeUpsertResult;
 import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.repository.EmployeeUpsertRepository.UpsertedEmployees;
 import com.javaguides.springboot.service.EmployeeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RequiredArgsConstructor
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // keeps IN lists short enough for the optimizer and the statement cache
+    static final int MAX_IN_CLAUSE_SIZE = 500;
+    // rows per upsert statement and per transaction: 3,000 placeholders, short row locks
+    static final int UPSERT_CHUNK_SIZE = 1000;
+
     private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KnownEmailFilter knownEmailFilter;
+    private final EmployeeReadCoalescer readCoalescer;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> employeeOptional = employeeRepository.findByEmail(employee.getEmail());
-        if(employeeOptional.isPresent())
-            throw new ResourceNotFoundException("Employee already exists with given email: " + employee.getEmail());
+        // a definite negative from the filter means the email was never stored, skip the round trip
+        if (knownEmailFilter.mightContain(employee.getEmail())) {
+            Optional<Employee> employeeOptional = readCoalescer.byEmail(employee.getEmail(),
+                    () -> employeeRepository.findByEmail(employee.getEmail()));
+            if(employeeOptional.isPresent())
+                throw new DuplicateEmployeeException(employee.getEmail());
+            knownEmailFilter.recordFalsePositive();
+        }
+
+        // added before the insert so a concurrent create of the same email cannot see a negative
+        knownEmailFilter.add(employee.getEmail());
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            // rows written around this service are not in the filter, the unique key has the last word
+            if (isDuplicateEmail(e))
+                throw new DuplicateEmployeeException(employee.getEmail());
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        return savedEmployee;
+    }
 
-        return employeeRepository.save(employee);
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains("uk_employees_email");
     }
 
     @Override
     public List<Employee> getAllEmployees() {
+        // not coalesced: the list cache checks its generation before calling this, joining a
+        // findAll that started before the latest commit would install stale rows as current
         return employeeRepository.findAll();
     }
 
+    @Override
+    public List<Map<String, Object>> getAllEmployees(Set<EmployeeField> fields) {
+        return employeeRepository.findAllProjected(fields);
+    }
+
     @Override
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+        return readCoalescer.byId(id, () -> employeeRepository.findById(id));
     }
 
     @Override
+    public Optional<Map<String, Object>> getEmployeeById(long id, Set<EmployeeField> fields) {
+        return employeeRepository.findProjectedById(id, fields);
+    }
+
+    @Override
+    public List<Optional<Employee>> getEmployeesByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Map<Long, Employee> employeesById = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += MAX_IN_CLAUSE_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, distinctIds.size()));
+            for (Employee employee : employeeRepository.findAllById(chunk))
+                employeesById.put(employee.getId(), employee);
+        }
+
+        return ids.stream()
+                .map(id -> Optional.ofNullable(employeesById.get(id)))
+                .toList();
+    }
+
+    @Override
+    @Transactional
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        knownEmailFilter.add(updatedEmployee.getEmail());
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.save(updatedEmployee);
+            // an UPDATE is deferred to commit, flush so a taken email fails here and not as a 500
+            employeeRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e))
+                throw new DuplicateEmployeeException(updatedEmployee.getEmail());
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(savedEmployee));
+        return savedEmployee;
     }
 
     @Override
+    @Transactional
     public void deleteEmployee(long id) {
         employeeRepository.deleteById(id);
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+    @Override
+    public EmployeeUpsertResult upsertEmployees(List<Employee> employees) {
+        // the last occurrence of an email wins, as it would when replaying the roster one by one
+        Map<String, Employee> byEmail = new LinkedHashMap<>(employees.size() * 2);
+        for (Employee employee : employees)
+            byEmail.put(employee.getEmail().toLowerCase(Locale.ROOT), employee);
+        List<Employee> distinct = new ArrayList<>(byEmail.values());
+
+        EmployeeUpsertResult result = EmployeeUpsertResult.EMPTY;
+        // one transaction per chunk, a failure only rolls back its own chunk
+        for (int from = 0; from < distinct.size(); from += UPSERT_CHUNK_SIZE) {
+            List<Employee> chunk = distinct.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, distinct.size()));
+            UpsertedEmployees upserted = transactionTemplate.execute(status -> upsertChunk(chunk));
+            result = result.plus(upserted.inserted().size(), upserted.updated().size(), upserted.unchanged());
+        }
+        return result;
+    }
+
+    private UpsertedEmployees upsertChunk(List<Employee> chunk) {
+        chunk.forEach(employee -> knownEmailFilter.add(employee.getEmail()));
+        UpsertedEmployees upserted = employeeRepository.upsertByEmail(chunk);
+        // one event for the chunk, a row-by-row stream would flood the feed and the list cache
+        if (!upserted.inserted().isEmpty() || !upserted.updated().isEmpty())
+            eventPublisher.publishEvent(new EmployeesUpsertedEvent(upserted.inserted().size(), upserted.updated().size()));
+        return upserted;
     }
 
 }
@@ -0,0 +1,94 @@
+package com.javaguides.springboot.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Globally unique employee ids that carry the slot of the row, so an id alone routes to its shard.
+ * <pre>
+ * 0 | slot (10 bits) | milliseconds since 2024-01-01 (41 bits) | node (4 bits) | sequence (8 bits)
+ * </pre>
+ * Every slot owns one contiguous id range, which is what a rebalance moves between shards. A row
+ * keeps the slot of the email it was created with; the node id keeps application instances from
+ * generating the same id and has to differ between them.
+ */
+public class EmployeeIdGenerator {
+
+    public static final int SLOT_BITS = 10;
+    public static final int SLOTS = 1 << SLOT_BITS;
+
+    static final int NODE_BITS = 4;
+    static final int SEQUENCE_BITS = 8;
+    static final int TIMESTAMP_BITS = Long.SIZE - 1 - SLOT_BITS - NODE_BITS - SEQUENCE_BITS;
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int SLOT_SHIFT = Long.SIZE - 1 - SLOT_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+
+    // guarded by this
+    private long lastMillis;
+    private long sequence;
+
+    public EmployeeIdGenerator(int node) {
+        if (node < 0 || node >= 1 << NODE_BITS)
+            throw new IllegalArgumentException("Node id must be in [0, " + (1 << NODE_BITS) + "): " + node);
+        this.node = node;
+    }
+
+    public long next(int slot) {
+        long millis;
+        long current;
+        synchronized (this) {
+            millis = Math.max(System.currentTimeMillis(), lastMillis);
+            if (millis == lastMillis) {
+                sequence = (sequence + 1) & SEQUENCE_MASK;
+                // sequence exhausted within this millisecond, borrow the next one
+                if (sequence == 0)
+                    millis++;
+            } else {
+                sequence = 0;
+            }
+            lastMillis = millis;
+            current = sequence;
+        }
+        return firstId(slot)
+                | (millis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)
+                | node << SEQUENCE_BITS
+                | current;
+    }
+
+    /**
+     * The slot of a generated id; any other id maps to some slot and is simply not found there.
+     */
+    public static int slotOf(long id) {
+        return (int) (id >>> SLOT_SHIFT) & (SLOTS - 1);
+    }
+
+    public static int slotOf(String email) {
+        long hash = 0;
+        for (byte b : email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8))
+            hash = hash * 31 + b;
+        return (int) (mix(hash) >>> (Long.SIZE - SLOT_BITS));
+    }
+
+    /**
+     * The first id of {@code slot}'s range; the range ends right before {@code firstId(slot + 1)}.
+     */
+    public static long firstId(int slot) {
+        return (long) slot << SLOT_SHIFT;
+    }
+
+    public static long lastId(int slot) {
+        return firstId(slot) | ((1L << SLOT_SHIFT) - 1);
+    }
+
+    // SplitMix64 finalizer, spreads the string hash over all bits
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
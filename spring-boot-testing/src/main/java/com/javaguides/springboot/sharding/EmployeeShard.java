@@ -0,0 +1,396 @@
+package com.javaguides.springboot.sharding;
+
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The employees of the slots one database holds, in the same {@code employees} table the JPA
+ * mapping uses but with ids assigned by {@link EmployeeIdGenerator}, plus
+ * {@code employee_email_routes} for rows whose current email hashes to a slot of this shard while
+ * the row itself lives with its id elsewhere, and {@code shard_slots} with the slots it owns, which
+ * change hands in the same transactions that copy and delete their rows. Tables are created when
+ * missing.
+ */
+class EmployeeShard {
+
+    private static final String COLUMNS = "id, first_name, last_name, email, updated_at";
+
+    private static final RowMapper<Employee> EMPLOYEE = (rs, rowNum) -> Employee.builder()
+            .id(rs.getLong("id"))
+            .firstName(rs.getString("first_name"))
+            .lastName(rs.getString("last_name"))
+            .email(rs.getString("email"))
+            .updatedAt(instant(rs, "updated_at"))
+            .build();
+
+    private final String name;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    EmployeeShard(String name, DataSource dataSource) {
+        this.name = name;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    String name() {
+        return name;
+    }
+
+    void createTables() {
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        jdbc.execute("create table if not exists employees (" +
+                "id bigint not null primary key, " +
+                "first_name varchar(255) not null, " +
+                "last_name varchar(255) not null, " +
+                "email varchar(255) not null, " +
+                "updated_at timestamp(6) not null default current_timestamp(6) on update current_timestamp(6), " +
+                "constraint uk_employees_email unique (email), " +
+                "index idx_employees_name (first_name, last_name), " +
+                "index idx_employees_updated_at (updated_at))");
+        jdbc.execute("create table if not exists employee_email_routes (" +
+                "email varchar(255) not null primary key, " +
+                "slot smallint not null, " +
+                "employee_id bigint not null, " +
+                "index idx_employee_email_routes_slot (slot))");
+        jdbc.execute("create table if not exists shard_slots (" +
+                "slot smallint not null primary key)");
+    }
+
+    <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    // --- reads
+
+    Optional<Employee> findById(long id) {
+        return jdbcTemplate.query("select " + COLUMNS + " from employees where id = :id",
+                Map.of("id", id), EMPLOYEE).stream().findFirst();
+    }
+
+    List<Employee> findAllById(Collection<Long> ids) {
+        return jdbcTemplate.query("select " + COLUMNS + " from employees where id in (:ids) order by id",
+                Map.of("ids", ids), EMPLOYEE);
+    }
+
+    List<Employee> findAll() {
+        return jdbcTemplate.query("select " + COLUMNS + " from employees order by id", EMPLOYEE);
+    }
+
+    /**
+     * The requested columns in {@link EmployeeField} order; {@code id} is always read, the merge
+     * orders by it, and dropped afterwards when not requested.
+     */
+    List<Map<String, Object>> findAllProjected(Set<EmployeeField> fields) {
+        return jdbcTemplate.query("select " + columns(fields) + " from employees order by id",
+                (rs, rowNum) -> project(rs, fields));
+    }
+
+    Optional<Map<String, Object>> findProjectedById(long id, Set<EmployeeField> fields) {
+        return jdbcTemplate.query("select " + columns(fields) + " from employees where id = :id",
+                Map.of("id", id), (rs, rowNum) -> project(rs, fields)).stream().findFirst();
+    }
+
+    /**
+     * The row stored here under {@code email}, or else the id of the row an alias route points
+     * to, in one statement.
+     */
+    Optional<ByEmail> findByEmail(String email) {
+        List<ByEmail> matches = jdbcTemplate.query(
+                "select " + COLUMNS + ", 0 as routed from employees where email = :email " +
+                        "union all " +
+                        "select employee_id, null, null, email, null, 1 from employee_email_routes where email = :email",
+                Map.of("email", email),
+                (rs, rowNum) -> rs.getBoolean("routed")
+                        ? new ByEmail(null, rs.getLong("id"))
+                        : new ByEmail(EMPLOYEE.mapRow(rs, rowNum), rs.getLong("id")));
+        // a row that moved off its home slot to a shard owning that slot too matches both ways
+        return matches.stream().filter(match -> match.employee() != null).findFirst()
+                .or(() -> matches.stream().findFirst());
+    }
+
+    List<Employee> findByEmails(Collection<String> emails) {
+        return jdbcTemplate.query("select " + COLUMNS + " from employees where email in (:emails)",
+                Map.of("emails", emails), EMPLOYEE);
+    }
+
+    Map<String, Long> routes(Collection<String> emails) {
+        Map<String, Long> routes = new HashMap<>();
+        jdbcTemplate.query("select email, employee_id from employee_email_routes where email in (:emails)",
+                Map.of("emails", emails),
+                rs -> {
+                    routes.put(rs.getString("email").toLowerCase(Locale.ROOT), rs.getLong("employee_id"));
+                });
+        return routes;
+    }
+
+    List<Employee> findByName(String firstName, String lastName) {
+        return jdbcTemplate.query("select " + COLUMNS + " from employees where first_name = :firstName and last_name = :lastName",
+                Map.of("firstName", firstName, "lastName", lastName), EMPLOYEE);
+    }
+
+    List<Employee> findByUpdatedAtAfter(Instant mark) {
+        return jdbcTemplate.query("select " + COLUMNS + " from employees where updated_at > :mark",
+                Map.of("mark", Timestamp.from(mark)), EMPLOYEE);
+    }
+
+    Stream<String> streamAllEmails() {
+        return streamingJdbcTemplate.queryForStream("select email from employees", (rs, rowNum) -> rs.getString(1));
+    }
+
+    Stream<Long> streamAllIds() {
+        return streamingJdbcTemplate.queryForStream("select id from employees", (rs, rowNum) -> rs.getLong(1));
+    }
+
+    long count() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("select count(*) from employees", Long.class);
+    }
+
+    // --- writes
+
+    /**
+     * Inserts rows whose email belongs to a slot of this shard, unless an alias route holds one
+     * of the emails already; the unique key covers the stored rows. Returns the rows inserted per
+     * employee.
+     */
+    int[] insert(List<Employee> employees) {
+        SqlParameterSource[] rows = employees.stream()
+                .map(employee -> new MapSqlParameterSource()
+                        .addValue("id", employee.getId())
+                        .addValue("firstName", employee.getFirstName())
+                        .addValue("lastName", employee.getLastName())
+                        .addValue("email", employee.getEmail()))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(
+                "insert into employees (id, first_name, last_name, email) " +
+                        "select :id, :firstName, :lastName, :email from dual " +
+                        "where not exists (select 1 from employee_email_routes where email = :email)",
+                rows);
+    }
+
+    /**
+     * The current email of the row, locked until the surrounding transaction ends.
+     */
+    Optional<String> lockEmail(long id) {
+        return jdbcTemplate.queryForList("select email from employees where id = :id for update",
+                Map.of("id", id), String.class).stream().findFirst();
+    }
+
+    /**
+     * Updates the row unless its new email is an alias route of another row here. Returns the
+     * rows matched.
+     */
+    int update(Employee employee) {
+        return jdbcTemplate.update(
+                "update employees set first_name = :firstName, last_name = :lastName, email = :email " +
+                        "where id = :id and not exists " +
+                        "(select 1 from employee_email_routes where email = :email and employee_id <> :id)",
+                new MapSqlParameterSource()
+                        .addValue("id", employee.getId())
+                        .addValue("firstName", employee.getFirstName())
+                        .addValue("lastName", employee.getLastName())
+                        .addValue("email", employee.getEmail()));
+    }
+
+    int[] updateNames(List<Employee> employees) {
+        SqlParameterSource[] rows = employees.stream()
+                .map(employee -> new MapSqlParameterSource()
+                        .addValue("id", employee.getId())
+                        .addValue("firstName", employee.getFirstName())
+                        .addValue("lastName", employee.getLastName()))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(
+                "update employees set first_name = :firstName, last_name = :lastName where id = :id", rows);
+    }
+
+    /**
+     * Deletes the row and returns the email it had.
+     */
+    Optional<String> delete(long id) {
+        return inTransaction(() -> {
+            Optional<String> email = lockEmail(id);
+            email.ifPresent(deleted -> jdbcTemplate.update("delete from employees where id = :id", Map.of("id", id)));
+            return email;
+        });
+    }
+
+    /**
+     * Points {@code email}, whose slot is on this shard, at a row stored elsewhere, unless another
+     * row here has that email. Returns the routes inserted.
+     */
+    int insertRoute(String email, int slot, long employeeId) {
+        return jdbcTemplate.update(
+                "insert into employee_email_routes (email, slot, employee_id) " +
+                        "select :email, :slot, :employeeId from dual " +
+                        "where not exists (select 1 from employees where email = :email and id <> :employeeId)",
+                new MapSqlParameterSource()
+                        .addValue("email", email)
+                        .addValue("slot", slot)
+                        .addValue("employeeId", employeeId));
+    }
+
+    void deleteRoute(String email, long employeeId) {
+        jdbcTemplate.update("delete from employee_email_routes where email = :email and employee_id = :employeeId",
+                Map.of("email", email, "employeeId", employeeId));
+    }
+
+    void deleteAll() {
+        inTransaction(() -> {
+            jdbcTemplate.getJdbcTemplate().update("delete from employee_email_routes");
+            return jdbcTemplate.getJdbcTemplate().update("delete from employees");
+        });
+    }
+
+    // --- slot ownership
+
+    Set<Integer> ownedSlots() {
+        return new HashSet<>(jdbcTemplate.getJdbcTemplate().queryForList("select slot from shard_slots", Integer.class));
+    }
+
+    void claimSlots(Collection<Integer> slots) {
+        jdbcTemplate.batchUpdate("insert into shard_slots (slot) values (:slot)",
+                slots.stream().map(slot -> new MapSqlParameterSource("slot", slot)).toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Slots outside {@code owned} that rows or routes stored here belong to; for rows at least one
+     * of every run of such slots, one indexed lookup per run.
+     */
+    Set<Integer> strayedSlots(Set<Integer> owned) {
+        Set<Integer> strayed = new TreeSet<>(jdbcTemplate.getJdbcTemplate()
+                .queryForList("select distinct slot from employee_email_routes", Integer.class));
+        strayed.removeAll(owned);
+        for (int first = 0; first < EmployeeIdGenerator.SLOTS; first++) {
+            if (owned.contains(first))
+                continue;
+            int last = first;
+            while (last + 1 < EmployeeIdGenerator.SLOTS && !owned.contains(last + 1))
+                last++;
+            Long id = jdbcTemplate.queryForObject("select min(id) from employees where id between :first and :last",
+                    Map.of("first", EmployeeIdGenerator.firstId(first), "last", EmployeeIdGenerator.lastId(last)),
+                    Long.class);
+            if (id != null)
+                strayed.add(EmployeeIdGenerator.slotOf(id));
+            first = last;
+        }
+        return strayed;
+    }
+
+    // --- slot moves
+
+    /**
+     * Copies the rows and routes of {@code slot} to {@code target} and claims the slot there, in
+     * one transaction, and returns the rows copied. Timestamps are kept, so incremental readers of {@code updated_at}
+     * do not see the move as a change.
+     */
+    int copySlot(int slot, EmployeeShard target) {
+        Map<String, Object> range = Map.of(
+                "first", EmployeeIdGenerator.firstId(slot),
+                "last", EmployeeIdGenerator.lastId(slot),
+                "slot", slot);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select " + COLUMNS + " from employees where id between :first and :last", range);
+        List<Map<String, Object>> routes = jdbcTemplate.queryForList(
+                "select email, slot, employee_id from employee_email_routes where slot = :slot", range);
+        target.inTransaction(() -> {
+            target.claimSlots(List.of(slot));
+            target.jdbcTemplate.batchUpdate("insert into employees (" + COLUMNS + ") " +
+                            "values (:id, :first_name, :last_name, :email, :updated_at)",
+                    parameters(rows));
+            return target.jdbcTemplate.batchUpdate("insert into employee_email_routes (email, slot, employee_id) " +
+                            "values (:email, :slot, :employee_id)",
+                    parameters(routes));
+        });
+        return rows.size();
+    }
+
+    /**
+     * Deletes the rows and routes of {@code slot} and gives up its claim.
+     */
+    void deleteSlot(int slot) {
+        Map<String, Object> range = Map.of(
+                "first", EmployeeIdGenerator.firstId(slot),
+                "last", EmployeeIdGenerator.lastId(slot),
+                "slot", slot);
+        inTransaction(() -> {
+            jdbcTemplate.update("delete from shard_slots where slot = :slot", range);
+            jdbcTemplate.update("delete from employee_email_routes where slot = :slot", range);
+            return jdbcTemplate.update("delete from employees where id between :first and :last", range);
+        });
+    }
+
+    private static SqlParameterSource[] parameters(List<Map<String, Object>> rows) {
+        return rows.stream()
+                .map(row -> new MapSqlParameterSource(row.entrySet().stream()
+                        // column labels come back in the driver's case
+                        .collect(Collectors.toMap(column -> column.getKey().toLowerCase(Locale.ROOT), Map.Entry::getValue))))
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    private static String columns(Set<EmployeeField> fields) {
+        StringBuilder columns = new StringBuilder("id");
+        for (EmployeeField field : EmployeeField.values())
+            if (field != EmployeeField.ID && fields.contains(field))
+                columns.append(", ").append(column(field));
+        return columns.toString();
+    }
+
+    private static Map<String, Object> project(ResultSet rs, Set<EmployeeField> fields) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>(fields.size() * 2 + 1);
+        row.put(EmployeeField.ID.attribute(), rs.getLong("id"));
+        for (EmployeeField field : EmployeeField.values())
+            if (field != EmployeeField.ID && fields.contains(field))
+                row.put(field.attribute(), rs.getString(column(field)));
+        return row;
+    }
+
+    private static String column(EmployeeField field) {
+        return switch (field) {
+            case ID -> "id";
+            case FIRST_NAME -> "first_name";
+            case LAST_NAME -> "last_name";
+            case EMAIL -> "email";
+        };
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    /**
+     * A row stored here, or only the id an alias route points to.
+     */
+    record ByEmail(Employee employee, long id) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.javaguides.springboot.sharding;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.model.EmployeeLookup;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Writes employee ids as JSON strings. {@link EmployeeIdGenerator} puts the slot in the top bits,
+ * so ids reach 2^62, far past the 2^53 a JavaScript number holds exactly. Covers the entity, the
+ * multi-get {@link EmployeeLookup} and the {@code id} of map rows (sparse fieldsets, deletions on
+ * the change feed). Reading is unaffected: Jackson accepts an id sent either way.
+ */
+public class IdsAsStringsModule extends SimpleModule {
+
+    public IdsAsStringsModule() {
+        super("IdsAsStringsModule");
+        setMixInAnnotation(Employee.class, IdAsString.class);
+        setMixInAnnotation(EmployeeLookup.class, IdAsString.class);
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifyMapSerializer(SerializationConfig config, MapType valueType,
+                                                         BeanDescription beanDesc, JsonSerializer<?> serializer) {
+                Class<?> keyType = valueType.getKeyType().getRawClass();
+                if (keyType != String.class && keyType != Object.class)
+                    return serializer;
+                return new MapIdAsString((JsonSerializer<Map<?, ?>>) serializer);
+            }
+        });
+    }
+
+    private abstract static class IdAsString {
+
+        @JsonSerialize(using = ToStringSerializer.class)
+        long id;
+    }
+
+    /**
+     * Hands the map on unchanged unless its {@code id} is a number, then as a copy with the id as
+     * a string. Sorted maps are left alone, looking up a string key may not be legal in them.
+     */
+    private static final class MapIdAsString extends StdSerializer<Map<?, ?>> implements ContextualSerializer {
+
+        private static final String ID = EmployeeField.ID.attribute();
+
+        private final JsonSerializer<Map<?, ?>> delegate;
+
+        @SuppressWarnings("unchecked")
+        private MapIdAsString(JsonSerializer<Map<?, ?>> delegate) {
+            super((Class<Map<?, ?>>) (Class<?>) Map.class);
+            this.delegate = delegate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+            JsonSerializer<?> contextual = delegate instanceof ContextualSerializer serializer
+                    ? serializer.createContextual(provider, property)
+                    : delegate;
+            return contextual == delegate ? this : new MapIdAsString((JsonSerializer<Map<?, ?>>) contextual);
+        }
+
+        @Override
+        public void serialize(Map<?, ?> map, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Object id = map instanceof SortedMap ? null : map.get(ID);
+            if (!(id instanceof Number)) {
+                delegate.serialize(map, generator, provider);
+                return;
+            }
+            Map<Object, Object> copy = new LinkedHashMap<>(map);
+            copy.put(ID, id.toString());
+            delegate.serialize(copy, generator, provider);
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Map<?, ?> map) {
+            return delegate.isEmpty(provider, map);
+        }
+    }
+}
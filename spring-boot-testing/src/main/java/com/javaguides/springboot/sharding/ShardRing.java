@@ -0,0 +1,91 @@
+package com.javaguides.springboot.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning each of the {@link EmployeeIdGenerator#SLOTS} slots to a shard.
+ * Every shard owns {@value #POINTS_PER_SHARD} points on the ring and a slot belongs to the first
+ * point at or after its own position. Adding a shard only takes over the slots right before its
+ * points, about a 1/n share, and leaves every other slot where it was; removing one hands its
+ * slots to the neighbours.
+ * <p>
+ * The assignment depends only on the shard names, so instances configured with the same shards
+ * route the same way.
+ */
+public final class ShardRing {
+
+    static final int POINTS_PER_SHARD = 128;
+
+    private final List<String> shards;
+    private final String[] owners;
+
+    private ShardRing(List<String> shards, String[] owners) {
+        this.shards = shards;
+        this.owners = owners;
+    }
+
+    public static ShardRing of(Collection<String> shards) {
+        if (shards.isEmpty())
+            throw new IllegalArgumentException("A ring needs at least one shard");
+
+        TreeMap<Long, String> points = new TreeMap<>();
+        for (String shard : shards)
+            for (int i = 0; i < POINTS_PER_SHARD; i++)
+                points.putIfAbsent(position(shard + '#' + i), shard);
+
+        String[] owners = new String[EmployeeIdGenerator.SLOTS];
+        for (int slot = 0; slot < owners.length; slot++) {
+            Map.Entry<Long, String> point = points.ceilingEntry(position("slot#" + slot));
+            owners[slot] = (point != null ? point : points.firstEntry()).getValue();
+        }
+        return new ShardRing(List.copyOf(shards), owners);
+    }
+
+    public String ownerOf(int slot) {
+        return owners[slot];
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * The slots {@code next} assigns to a different shard than this ring.
+     */
+    public List<Integer> movedSlots(ShardRing next) {
+        List<Integer> moved = new ArrayList<>();
+        for (int slot = 0; slot < owners.length; slot++)
+            if (!owners[slot].equals(next.owners[slot]))
+                moved.add(slot);
+        return moved;
+    }
+
+    public Map<String, Integer> slotCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String shard : shards)
+            counts.put(shard, 0);
+        for (String owner : owners)
+            counts.merge(owner, 1, Integer::sum);
+        return counts;
+    }
+
+    // first 8 bytes of MD5, unsigned order is irrelevant as long as it is stable
+    private static long position(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long position = 0;
+            for (int i = 0; i < Long.BYTES; i++)
+                position = position << 8 | (digest[i] & 0xff);
+            return position;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is a required JDK algorithm", e);
+        }
+    }
+}
@@ -0,0 +1,797 @@
+package com.javaguides.springboot.sharding;
+
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import static com.javaguides.springboot.sharding.EmployeeIdGenerator.slotOf;
+
+/**
+ * {@link EmployeeRepository} spread over several databases, active with the {@code sharded}
+ * profile.
+ * <p>
+ * An email hashes to one of {@link EmployeeIdGenerator#SLOTS} slots and a {@link ShardRing} maps
+ * slots to shards. A new row takes the slot of its email and an id from that slot's range, so
+ * {@code findByEmail} and every by-id operation go to exactly one shard. When an email later
+ * changes to one of another slot, the row stays with its id and an alias route is written on the
+ * shard of the new email's slot; {@code findByEmail} reads the row or the route in one statement
+ * and follows the route with a second one. The unique key on email is kept across shards the same
+ * way: a row and a route for the same email can only meet on the shard of that email's slot.
+ * <p>
+ * Reads of the whole table ask every shard in parallel and merge the id-ordered results, so
+ * {@code findAll} keeps the order of a single table. Sorted and paged reads are cut from that
+ * merged result in memory.
+ * <p>
+ * {@link #rebalance(ShardRing)} moves the slots the new ring assigns elsewhere one at a time; each
+ * slot is copied, deleted from its old shard and switched over while all other operations wait,
+ * so a move only stalls traffic for the time of one slot. Each shard records the slots it owns in
+ * {@code shard_slots} and the repository routes by those records when it starts, whatever ring it
+ * is given; the ring only places slots no shard has claimed yet, on a fresh set of databases.
+ * Several running application instances are not coordinated: run a rebalance with a single
+ * instance and restart the others afterwards.
+ * <p>
+ * Writes run in one local transaction per shard. A write that spans two shards, an email change
+ * that adds or removes an alias route or a bulk upsert, is not atomic across them, and a
+ * surrounding {@code @Transactional} does not roll back anything. Query-by-example is not
+ * supported.
+ */
+@Slf4j
+public class ShardedEmployeeRepository implements EmployeeRepository, MeterBinder {
+
+    private final Map<String, EmployeeShard> shards = new LinkedHashMap<>();
+    private final EmployeeIdGenerator idGenerator;
+    private final ExecutorService scatterExecutor;
+    private final ReentrantReadWriteLock topology = new ReentrantReadWriteLock();
+    private final Lock read = topology.readLock();
+    private final Lock write = topology.writeLock();
+    private final Object rebalanceLock = new Object();
+
+    // guarded by topology
+    private final String[] owners = new String[EmployeeIdGenerator.SLOTS];
+    private ShardRing ring;
+    // the ring's shards, and during a rebalance those of the next one as well
+    private List<EmployeeShard> active;
+
+    public ShardedEmployeeRepository(Map<String, DataSource> dataSources, ShardRing ring, EmployeeIdGenerator ids,
+                                     int scatterThreads) {
+        dataSources.forEach((name, dataSource) -> shards.put(name, new EmployeeShard(name, dataSource)));
+        checkShards(ring);
+        shards.values().forEach(EmployeeShard::createTables);
+        loadOwners(ring);
+        this.ring = ring;
+        this.active = Stream.concat(ring.shards().stream(), Stream.of(owners)).distinct().map(shards::get).toList();
+        this.idGenerator = ids;
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(scatterThreads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes the owner of every slot from the shards' claims. On databases where no shard has
+     * claimed anything yet, the slots are claimed as {@code ring} places them. Refuses to start
+     * when a slot is claimed twice, which a move interrupted between its copy and its delete
+     * leaves behind, when claimed slots are missing, or when a shard holds rows or routes of a
+     * slot it does not own.
+     */
+    private void loadOwners(ShardRing ring) {
+        Map<String, Set<Integer>> owned = new LinkedHashMap<>();
+        shards.forEach((name, shard) -> owned.put(name, shard.ownedSlots()));
+        owned.forEach((name, slots) -> {
+            for (int slot : slots) {
+                if (owners[slot] != null)
+                    throw new IllegalStateException("Slot " + slot + " is claimed by " + owners[slot] + " and " + name +
+                            ", a slot move was interrupted; delete its rows, routes and shard_slots entry on one of them");
+                owners[slot] = name;
+            }
+        });
+
+        boolean seed = owned.values().stream().allMatch(Set::isEmpty);
+        if (seed) {
+            for (int slot = 0; slot < owners.length; slot++) {
+                owners[slot] = ring.ownerOf(slot);
+                owned.get(owners[slot]).add(slot);
+            }
+        } else {
+            List<Integer> unclaimed = new ArrayList<>();
+            for (int slot = 0; slot < owners.length; slot++)
+                if (owners[slot] == null)
+                    unclaimed.add(slot);
+            if (!unclaimed.isEmpty())
+                throw new IllegalStateException("Slots " + unclaimed + " are claimed by none of " + shards.keySet() +
+                        ", is a shard that owns them missing from the configuration?");
+        }
+
+        owned.forEach((name, slots) -> {
+            Set<Integer> strayed = shards.get(name).strayedSlots(slots);
+            if (!strayed.isEmpty())
+                throw new IllegalStateException(name + " holds employees of slots " + strayed + " it does not own");
+        });
+        if (seed)
+            owned.forEach((name, slots) -> shards.get(name).claimSlots(slots));
+
+        int elsewhere = 0;
+        for (int slot = 0; slot < owners.length; slot++)
+            if (!owners[slot].equals(ring.ownerOf(slot)))
+                elsewhere++;
+        if (elsewhere > 0)
+            log.warn("{} slots are not on the shard the ring of {} assigns them, a rebalance onto it moves them",
+                    elsewhere, ring.shards());
+    }
+
+    public void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+
+    // --- single shard
+
+    @Override
+    public Optional<Employee> findByEmail(String email) {
+        if (email == null)
+            return Optional.empty();
+        return locked(() -> homeOf(email).findByEmail(email).flatMap(match -> match.employee() != null
+                ? Optional.of(match.employee())
+                : shardOf(match.id()).findById(match.id())
+                        .filter(employee -> key(employee.getEmail()).equals(key(email)))));
+    }
+
+    @Override
+    public Optional<Employee> findById(Long id) {
+        return locked(() -> shardOf(id).findById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findProjectedById(long id, Set<EmployeeField> fields) {
+        return locked(() -> shardOf(id).findProjectedById(id, fields).map(row -> withoutUnrequestedId(row, fields)));
+    }
+
+    @Override
+    public <S extends Employee> S save(S employee) {
+        checkColumns(employee);
+        return locked(() -> {
+            if (employee.getId() != 0 && update(employee)) {
+                @SuppressWarnings("unchecked")
+                S updated = (S) copy(employee);
+                return updated;
+            }
+            int slot = slotOf(employee.getEmail());
+            Employee inserted = copy(employee);
+            inserted.setId(idGenerator.next(slot));
+            if (shardOf(slot).insert(List.of(inserted))[0] == 0)
+                throw duplicateEmail(employee.getEmail());
+            // like Hibernate: a new entity is persisted itself and gets the generated id, a
+            // detached one with an unknown id is merged into a copy and left as it was
+            if (employee.getId() == 0) {
+                employee.setId(inserted.getId());
+                return employee;
+            }
+            @SuppressWarnings("unchecked")
+            S saved = (S) inserted;
+            return saved;
+        });
+    }
+
+    // false when there is no row with the employee's id; callers hold the read lock
+    private boolean update(Employee employee) {
+        long id = employee.getId();
+        EmployeeShard shard = shardOf(id);
+        Optional<String> previous = shard.inTransaction(() -> {
+            Optional<String> current = shard.lockEmail(id);
+            if (current.isEmpty())
+                return current;
+            // an email of another slot needs its route first, a duplicate fails before the row changes
+            boolean routed = !key(current.get()).equals(key(employee.getEmail()))
+                    && slotOf(employee.getEmail()) != slotOf(id);
+            if (routed)
+                addRoute(employee.getEmail(), id);
+            try {
+                if (shard.update(employee) == 0)
+                    throw duplicateEmail(employee.getEmail());
+            } catch (RuntimeException e) {
+                if (routed)
+                    homeOf(employee.getEmail()).deleteRoute(employee.getEmail(), id);
+                throw e;
+            }
+            return current;
+        });
+        previous.filter(email -> !key(email).equals(key(employee.getEmail())))
+                .ifPresent(email -> removeRoute(email, id));
+        return previous.isPresent();
+    }
+
+    private void addRoute(String email, long id) {
+        int inserted;
+        try {
+            inserted = homeOf(email).insertRoute(email, slotOf(email), id);
+        } catch (DataIntegrityViolationException e) {
+            // the primary key of employee_email_routes, another row already routed there
+            throw duplicateEmail(email);
+        }
+        if (inserted == 0)
+            throw duplicateEmail(email);
+    }
+
+    // drops the alias route of an email the row no longer has, if it was not in the row's own slot
+    private void removeRoute(String email, long id) {
+        if (slotOf(email) != slotOf(id))
+            homeOf(email).deleteRoute(email, id);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        locked(() -> {
+            shardOf(id).delete(id).ifPresent(email -> removeRoute(email, id));
+            return null;
+        });
+    }
+
+    /**
+     * Reads the stored rows of all emails in one statement per shard, then inserts and updates in
+     * one batch per shard, each in its own transaction.
+     */
+    @Override
+    public UpsertedEmployees upsertByEmail(Collection<Employee> upserts) {
+        upserts.forEach(ShardedEmployeeRepository::checkColumns);
+        return locked(() -> {
+            Map<String, Employee> stored = findAllByEmail(upserts.stream().map(Employee::getEmail).toList());
+
+            Map<EmployeeShard, List<Employee>> inserts = new LinkedHashMap<>();
+            Map<EmployeeShard, List<Employee>> updates = new LinkedHashMap<>();
+            List<Employee> inserted = new ArrayList<>();
+            List<Employee> updated = new ArrayList<>();
+            int unchanged = 0;
+            for (Employee employee : upserts) {
+                Employee current = stored.get(key(employee.getEmail()));
+                if (current == null) {
+                    int slot = slotOf(employee.getEmail());
+                    employee.setId(idGenerator.next(slot));
+                    inserts.computeIfAbsent(shardOf(slot), shard -> new ArrayList<>()).add(employee);
+                    inserted.add(employee);
+                } else if (!Objects.equals(current.getFirstName(), employee.getFirstName())
+                        || !Objects.equals(current.getLastName(), employee.getLastName())) {
+                    employee.setId(current.getId());
+                    updates.computeIfAbsent(shardOf(current.getId()), shard -> new ArrayList<>()).add(employee);
+                    updated.add(employee);
+                } else {
+                    unchanged++;
+                }
+            }
+
+            inserts.forEach((shard, employees) -> shard.inTransaction(() -> {
+                int[] counts = shard.insert(employees);
+                for (int i = 0; i < counts.length; i++)
+                    if (counts[i] == 0)
+                        throw duplicateEmail(employees.get(i).getEmail());
+                return null;
+            }));
+            updates.forEach((shard, employees) -> shard.inTransaction(() -> shard.updateNames(employees)));
+            return new UpsertedEmployees(inserted, updated, unchanged);
+        });
+    }
+
+    // keyed by lower-cased email; callers hold the read lock
+    private Map<String, Employee> findAllByEmail(List<String> emails) {
+        Map<EmployeeShard, List<String>> byShard = new LinkedHashMap<>();
+        for (String email : emails)
+            byShard.computeIfAbsent(homeOf(email), shard -> new ArrayList<>()).add(email);
+
+        Map<String, Employee> stored = new HashMap<>(emails.size() * 2);
+        Map<Long, String> routed = new HashMap<>();
+        for (Map.Entry<EmployeeShard, List<String>> shard : byShard.entrySet()) {
+            for (Employee employee : shard.getKey().findByEmails(shard.getValue()))
+                stored.put(key(employee.getEmail()), employee);
+            shard.getKey().routes(shard.getValue()).forEach((email, id) -> routed.put(id, email));
+        }
+        for (Employee employee : findAllByIdLocked(routed.keySet()))
+            if (key(employee.getEmail()).equals(routed.get(employee.getId())))
+                stored.put(key(employee.getEmail()), employee);
+        return stored;
+    }
+
+    // --- scatter-gather
+
+    @Override
+    public List<Employee> findAll() {
+        return locked(() -> mergeById(scatter(EmployeeShard::findAll), Employee::getId));
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Set<EmployeeField> fields) {
+        return locked(() -> mergeById(scatter(shard -> shard.findAllProjected(fields)),
+                row -> (Long) row.get(EmployeeField.ID.attribute())))
+                .stream()
+                .map(row -> withoutUnrequestedId(row, fields))
+                .toList();
+    }
+
+    @Override
+    public List<Employee> findAllById(Iterable<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        ids.forEach(distinct::add);
+        return locked(() -> findAllByIdLocked(distinct));
+    }
+
+    // one query per shard holding any of the ids, in parallel; callers hold the read lock
+    private List<Employee> findAllByIdLocked(Collection<Long> ids) {
+        Map<EmployeeShard, List<Long>> byShard = new LinkedHashMap<>();
+        for (long id : ids)
+            byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        List<Supplier<List<Employee>>> queries = byShard.entrySet().stream()
+                .<Supplier<List<Employee>>>map(shard -> () -> shard.getKey().findAllById(shard.getValue()))
+                .toList();
+        return mergeById(parallel(queries), Employee::getId);
+    }
+
+    @Override
+    public List<Employee> findByUpdatedAtAfter(Instant mark) {
+        return locked(() -> scatter(shard -> shard.findByUpdatedAtAfter(mark)).stream()
+                .flatMap(List::stream)
+                .toList());
+    }
+
+    /**
+     * One shard after the other, each streamed; a rebalance running meanwhile can make the stream
+     * miss or repeat the rows of a moved slot.
+     */
+    @Override
+    public Stream<String> streamAllEmails() {
+        return locked(() -> active).stream().flatMap(EmployeeShard::streamAllEmails);
+    }
+
+    /**
+     * Like {@link #streamAllEmails()}, in no particular order.
+     */
+    @Override
+    public Stream<Long> streamAllIds() {
+        return locked(() -> active).stream().flatMap(EmployeeShard::streamAllIds);
+    }
+
+    @Override
+    public long count() {
+        return locked(() -> scatter(EmployeeShard::count).stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Override
+    public Employee findByJPQL(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    @Override
+    public Employee findByJPQLNamedParams(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    @Override
+    public Employee findByNativeQuery(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    @Override
+    public Employee findByNativeQueryNamedParams(String firstName, String lastName) {
+        return findByName(firstName, lastName);
+    }
+
+    private Employee findByName(String firstName, String lastName) {
+        List<Employee> matches = locked(() -> scatter(shard -> shard.findByName(firstName, lastName))).stream()
+                .flatMap(List::stream)
+                .toList();
+        if (matches.size() > 1)
+            throw new IncorrectResultSizeDataAccessException(1, matches.size());
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    @Override
+    public void deleteAll() {
+        locked(() -> scatter(shard -> {
+            shard.deleteAll();
+            return null;
+        }));
+    }
+
+    // callers hold the read lock
+    private <T> List<T> scatter(Function<EmployeeShard, T> query) {
+        return parallel(active.stream().<Supplier<T>>map(shard -> () -> query.apply(shard)).toList());
+    }
+
+    private <T> List<T> parallel(List<Supplier<T>> queries) {
+        if (queries.size() == 1)
+            return List.of(queries.get(0).get());
+        List<CompletableFuture<T>> futures = queries.stream()
+                .map(query -> CompletableFuture.supplyAsync(query, scatterExecutor))
+                .toList();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * K-way merge of lists each ordered by id.
+     */
+    static <T> List<T> mergeById(List<List<T>> sorted, ToLongFunction<T> id) {
+        if (sorted.size() == 1)
+            return sorted.get(0);
+        record Head<T>(T value, long id, Iterator<T> rest) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Comparator.comparingLong(Head::id));
+        int size = 0;
+        for (List<T> list : sorted) {
+            size += list.size();
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                T first = iterator.next();
+                heads.add(new Head<>(first, id.applyAsLong(first), iterator));
+            }
+        }
+        List<T> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value());
+            if (head.rest().hasNext()) {
+                T next = head.rest().next();
+                heads.add(new Head<>(next, id.applyAsLong(next), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    // --- rebalancing
+
+    /**
+     * Moves every slot {@code next} assigns to another shard than it is on now, one slot at a
+     * time, and switches to {@code next}. A rebalance that failed midway leaves the slots moved so
+     * far on their new shard and is completed by running it again.
+     */
+    public Rebalance rebalance(ShardRing next) {
+        checkShards(next);
+        synchronized (rebalanceLock) {
+            List<EmployeeShard> during = Stream.concat(locked(() -> active).stream(), next.shards().stream().map(shards::get))
+                    .distinct()
+                    .toList();
+            List<Integer> moving = new ArrayList<>();
+            withWriteLock(() -> {
+                active = during;
+                for (int slot = 0; slot < owners.length; slot++)
+                    if (!owners[slot].equals(next.ownerOf(slot)))
+                        moving.add(slot);
+            });
+
+            long rows = 0;
+            for (int slot : moving) {
+                long start = System.nanoTime();
+                int moved = withWriteLock(() -> moveSlot(slot, next.ownerOf(slot)));
+                rows += moved;
+                log.info("Moved slot {} with {} employees to {} in {} ms",
+                        slot, moved, next.ownerOf(slot), (System.nanoTime() - start) / 1_000_000);
+            }
+
+            withWriteLock(() -> {
+                ring = next;
+                active = next.shards().stream().map(shards::get).toList();
+            });
+            return new Rebalance(moving.size(), rows);
+        }
+    }
+
+    // callers hold the write lock
+    private int moveSlot(int slot, String owner) {
+        EmployeeShard source = shardOf(slot);
+        EmployeeShard target = shards.get(owner);
+        int rows = source.copySlot(slot, target);
+        try {
+            source.deleteSlot(slot);
+        } catch (RuntimeException e) {
+            // the slot stays where it was, without the copy
+            target.deleteSlot(slot);
+            throw e;
+        }
+        owners[slot] = owner;
+        return rows;
+    }
+
+    public ShardRing ring() {
+        return locked(() -> ring);
+    }
+
+    /**
+     * Slots and rows on every configured shard.
+     */
+    public Map<String, ShardUsage> usage() {
+        return locked(() -> {
+            Map<String, Integer> slots = slotCounts();
+            Map<String, ShardUsage> usage = new TreeMap<>();
+            List<Long> counts = parallel(shards.values().stream().<Supplier<Long>>map(shard -> shard::count).toList());
+            int i = 0;
+            for (String name : shards.keySet())
+                usage.put(name, new ShardUsage(slots.getOrDefault(name, 0), counts.get(i++)));
+            return usage;
+        });
+    }
+
+    // callers hold the read lock
+    private Map<String, Integer> slotCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String owner : owners)
+            counts.merge(owner, 1, Integer::sum);
+        return counts;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : shards.keySet())
+            Gauge.builder("employees.shard.slots", this, repository -> locked(() -> repository.slotCounts().getOrDefault(name, 0)))
+                    .description("Slots owned by each shard")
+                    .tag("shard", name)
+                    .register(registry);
+    }
+
+    private void checkShards(ShardRing ring) {
+        List<String> unknown = ring.shards().stream().filter(name -> !shards.containsKey(name)).toList();
+        if (!unknown.isEmpty())
+            throw new IllegalArgumentException("Unknown shards " + unknown + ", configured are " + shards.keySet());
+    }
+
+    // --- routing
+
+    // callers hold the lock
+    private EmployeeShard shardOf(int slot) {
+        return shards.get(owners[slot]);
+    }
+
+    private EmployeeShard shardOf(long id) {
+        return shardOf(slotOf(id));
+    }
+
+    private EmployeeShard homeOf(String email) {
+        return shardOf(slotOf(email));
+    }
+
+    private <T> T locked(Supplier<T> work) {
+        read.lock();
+        try {
+            return work.get();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    private <T> T withWriteLock(Supplier<T> work) {
+        write.lock();
+        try {
+            return work.get();
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable work) {
+        withWriteLock(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // --- remaining repository methods
+
+    @Override
+    public <S extends Employee> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S employee : entities)
+            saved.add(save(employee));
+        return saved;
+    }
+
+    @Override
+    public void delete(Employee employee) {
+        deleteById(employee.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Employee> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public List<Employee> findAll(Sort sort) {
+        return findAll().stream().sorted(comparator(sort)).toList();
+    }
+
+    @Override
+    public Page<Employee> findAll(Pageable pageable) {
+        List<Employee> all = findAll();
+        List<Employee> page = all.stream()
+                .sorted(comparator(pageable.getSort()))
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .toList();
+        return new PageImpl<>(page, pageable, all.size());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Employee> comparator(Sort sort) {
+        Comparator<Employee> comparator = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            EmployeeField field = EmployeeField.fromAttribute(order.getProperty());
+            Comparator<Employee> byField = Comparator.comparing(employee -> (Comparable) field.valueOf(employee),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byField : byField.reversed());
+        }
+        return comparator;
+    }
+
+    @Override
+    public void flush() {
+        // every write is executed immediately
+    }
+
+    @Override
+    public <S extends Employee> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public <S extends Employee> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Employee> entities) {
+        deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    @Deprecated
+    public Employee getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public Employee getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public Employee getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find Employee with id " + id));
+    }
+
+    @Override
+    public <S extends Employee> Optional<S> findOne(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends Employee> List<S> findAll(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends Employee> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends Employee> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends Employee> long count(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends Employee> boolean exists(Example<S> example) {
+        throw queryByExample();
+    }
+
+    @Override
+    public <S extends Employee, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExample();
+    }
+
+    private static UnsupportedOperationException queryByExample() {
+        return new UnsupportedOperationException("Query by example is not supported by the sharded repository");
+    }
+
+    private static Map<String, Object> withoutUnrequestedId(Map<String, Object> row, Set<EmployeeField> fields) {
+        if (!fields.contains(EmployeeField.ID))
+            row.remove(EmployeeField.ID.attribute());
+        return row;
+    }
+
+    private static void checkColumns(Employee employee) {
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null)
+            throw new DataIntegrityViolationException("Employee columns are not nullable: " + employee.getId());
+    }
+
+    private static DataIntegrityViolationException duplicateEmail(String email) {
+        return new DataIntegrityViolationException("Duplicate entry '" + email + "' for key 'employees.uk_employees_email'");
+    }
+
+    private static Employee copy(Employee employee) {
+        return employee.toBuilder().build();
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Slots moved to another shard and the employee rows they held.
+     */
+    public record Rebalance(int slots, long rows) {
+    }
+
+    public record ShardUsage(int slots, long rows) {
+    }
+}
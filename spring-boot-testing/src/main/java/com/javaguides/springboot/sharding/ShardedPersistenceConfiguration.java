@@ -0,0 +1,95 @@
+package com.javaguides.springboot.sharding;
+
+import com.javaguides.springboot.repository.ResourcelessTransactionManager;
+import com.javaguides.springboot.timing.JdbcListener;
+import com.javaguides.springboot.timing.ObservedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the single MySQL database with {@link ShardedEmployeeRepository} under the
+ * {@code sharded} profile, which also switches off the DataSource and JPA auto-configuration (see
+ * {@code application.yml}). Every shard gets its own Hikari pool, observed like the default
+ * DataSource.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("sharded")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardedPersistenceConfiguration {
+
+    @Bean
+    public ShardDataSources shardDataSources(ShardingProperties properties, ObjectProvider<JdbcListener> listeners) {
+        Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+        properties.shards().forEach((name, shard) -> {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("employees-" + name);
+            pool.setJdbcUrl(shard.url());
+            pool.setUsername(shard.username());
+            pool.setPassword(shard.password());
+            pool.setMaximumPoolSize(shard.maximumPoolSize());
+            pools.put(name, pool);
+        });
+        return new ShardDataSources(pools, listeners);
+    }
+
+    @Bean
+    public ShardedEmployeeRepository employeeRepository(ShardDataSources dataSources, ShardingProperties properties) {
+        List<String> active = properties.active() != null ? properties.active() : List.copyOf(properties.shards().keySet());
+        return new ShardedEmployeeRepository(dataSources.observed(), ShardRing.of(active),
+                new EmployeeIdGenerator(properties.nodeId()), properties.scatterThreads());
+    }
+
+    /**
+     * Generated ids do not fit a JavaScript number, clients get them as strings.
+     */
+    @Bean
+    public IdsAsStringsModule idsAsStringsModule() {
+        return new IdsAsStringsModule();
+    }
+
+    @Bean
+    public ShardsEndpoint shardsEndpoint(ShardedEmployeeRepository employeeRepository) {
+        return new ShardsEndpoint(employeeRepository);
+    }
+
+    /**
+     * There is no transaction spanning the shards, see {@link ShardedEmployeeRepository}.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager() {
+        return new ResourcelessTransactionManager();
+    }
+
+    /**
+     * The pools by shard name, closed with the context.
+     */
+    public static class ShardDataSources implements AutoCloseable {
+
+        private final Map<String, HikariDataSource> pools;
+        private final Map<String, DataSource> observed = new LinkedHashMap<>();
+
+        ShardDataSources(Map<String, HikariDataSource> pools, ObjectProvider<JdbcListener> listeners) {
+            this.pools = pools;
+            pools.forEach((name, pool) -> observed.put(name, new ObservedDataSource(pool, listeners)));
+        }
+
+        public Map<String, DataSource> observed() {
+            return observed;
+        }
+
+        @Override
+        public void close() {
+            pools.values().forEach(HikariDataSource::close);
+        }
+    }
+}
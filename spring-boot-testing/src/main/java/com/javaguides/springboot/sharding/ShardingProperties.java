@@ -0,0 +1,28 @@
+package com.javaguides.springboot.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code employees.sharding}: every database a shard can live on, by name, and the shards the
+ * ring currently spreads slots over. A shard that is configured but not active holds nothing and
+ * can be rebalanced onto.
+ *
+ * @param nodeId         distinct for every application instance, see {@link EmployeeIdGenerator}
+ * @param scatterThreads threads asking the shards in parallel, shared by all requests
+ */
+@ConfigurationProperties("employees.sharding")
+public record ShardingProperties(Map<String, Shard> shards,
+                                 List<String> active,
+                                 @DefaultValue("0") int nodeId,
+                                 @DefaultValue("32") int scatterThreads) {
+
+    public record Shard(String url,
+                        String username,
+                        String password,
+                        @DefaultValue("10") int maximumPoolSize) {
+    }
+}
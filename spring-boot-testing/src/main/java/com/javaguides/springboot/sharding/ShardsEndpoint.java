@@ -0,0 +1,40 @@
+package com.javaguides.springboot.sharding;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The {@code shards} actuator endpoint: slots and rows per shard, and a rebalance onto a new set of
+ * active shards, for example {@code {"active": "shard-0,shard-1,shard-2"}}. The call returns once
+ * every slot has moved.
+ * <p>
+ * A rebalance moves rows between databases, so the {@code sharded} profile exposes the endpoint
+ * over local JMX only. Exposing it over HTTP needs authentication in front of
+ * {@code /actuator/shards}, or a {@code management.server.port} that clients cannot reach.
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardedEmployeeRepository employeeRepository;
+
+    public ShardsEndpoint(ShardedEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @ReadOperation
+    public Map<String, ShardedEmployeeRepository.ShardUsage> shards() {
+        return employeeRepository.usage();
+    }
+
+    @WriteOperation
+    public ShardedEmployeeRepository.Rebalance rebalance(String active) {
+        return employeeRepository.rebalance(ShardRing.of(Arrays.stream(active.split(","))
+                .map(String::trim)
+                .filter(shard -> !shard.isEmpty())
+                .toList()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.javaguides.springboot.snapshot;
+
+import com.javaguides.springboot.model.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The employee table as of {@code highWaterMark}, the latest {@code updated_at} among its rows,
+ * stored as a compact binary file:
+ * <pre>
+ * int magic, int format version, long mark seconds, int mark nanos, int row count,
+ * per row: long id, then first name, last name and email as unsigned short length + UTF-8,
+ * int CRC32 of everything before it
+ * </pre>
+ * A file is written next to its target and moved over it, so readers see the old or the new one.
+ * A file that was cut short or damaged fails the CRC and is rejected as a whole.
+ * <p>
+ * Names and emails are personal data stored unencrypted. Where the file system has POSIX
+ * permissions the file, and any directory created for it, is accessible by its owner only.
+ */
+public record EmployeeSnapshot(Instant highWaterMark, List<Employee> employees) {
+
+    public static final EmployeeSnapshot EMPTY = new EmployeeSnapshot(Instant.EPOCH, List.of());
+
+    static final int MAGIC = 0x454d5053; // "EMPS"
+    static final int FORMAT_VERSION = 1;
+
+    private static final int MAX_STRING_BYTES = 0xffff;
+
+    public static Optional<EmployeeSnapshot> read(Path path) throws IOException {
+        if (Files.notExists(path))
+            return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 28 || size > Integer.MAX_VALUE)
+                throw new IOException("Not an employee snapshot (" + size + " bytes): " + path);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int contentLength = (int) size - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, contentLength));
+            if ((int) crc.getValue() != buffer.getInt(contentLength))
+                throw new IOException("Checksum mismatch, snapshot is damaged: " + path);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+                throw new IOException("Not an employee snapshot of format " + FORMAT_VERSION + ": " + path);
+
+            Instant highWaterMark = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            int rows = buffer.getInt();
+            List<Employee> employees = new ArrayList<>(rows);
+            try {
+                for (int i = 0; i < rows; i++)
+                    employees.add(Employee.builder()
+                            .id(buffer.getLong())
+                            .firstName(readString(buffer))
+                            .lastName(readString(buffer))
+                            .email(readString(buffer))
+                            .build());
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Snapshot ends before its " + rows + " rows: " + path, e);
+            }
+            return Optional.of(new EmployeeSnapshot(highWaterMark, employees));
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        boolean posix = path.getFileSystem().supportedFileAttributeViews().contains("posix");
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null)
+            Files.createDirectories(directory, ownerOnly(posix, "rwx------"));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        // created afresh so the permissions apply, a leftover may be readable by others
+        Files.deleteIfExists(temporary);
+        Files.createFile(temporary, ownerOnly(posix, "rw-------"));
+
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(highWaterMark.getEpochSecond());
+            out.writeInt(highWaterMark.getNano());
+            out.writeInt(employees.size());
+            for (Employee employee : employees) {
+                out.writeLong(employee.getId());
+                writeString(out, employee.getFirstName());
+                writeString(out, employee.getLastName());
+                writeString(out, employee.getEmail());
+            }
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static FileAttribute<?>[] ownerOnly(boolean posix, String permissions) {
+        return posix
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))}
+                : new FileAttribute<?>[0];
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES)
+            throw new IOException("Column value of " + bytes.length + " bytes does not fit a snapshot");
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,257 @@
+package com.javaguides.springboot.snapshot;
+
+import com.javaguides.springboot.bloom.KnownEmailFilter;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a snapshot of the employee table on local disk and, before the application takes traffic,
+ * warms the {@code getAll} cache and the known email filter from it instead of reading the table.
+ * The warm-up runs as the context starts, in a lifecycle phase ahead of the embedded web server's.
+ * <p>
+ * The snapshot is brought up to date by reading only rows whose {@code updated_at} is past its
+ * high-water mark, less {@code employees.snapshot.overlap} for transactions that committed after
+ * a later one. When the row count then differs from the table, the stored ids are streamed to
+ * drop deleted rows. A missing or damaged snapshot, or a failed refresh, leaves startup cold, as
+ * before. Every {@code employees.snapshot.interval} the same refresh runs on the file and writes
+ * it back; only the first snapshot reads the whole table.
+ * <p>
+ * The file holds every employee's name and email unencrypted, so nothing runs until
+ * {@code employees.snapshot.path} is set explicitly; {@link EmployeeSnapshot} creates it readable
+ * by its owner only.
+ * <p>
+ * By-id reads have no in-process cache, nothing is warmed for them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "employees.snapshot", name = {"enabled", "path"})
+public class EmployeeWarmStart implements SmartLifecycle, MeterBinder {
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final EmployeeListResponseCache employeeListResponseCache;
+    private final KnownEmailFilter knownEmailFilter;
+    private final Path path;
+    private final Duration interval;
+    private final Duration overlap;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger snapshotRows = new AtomicInteger();
+    private final AtomicInteger warmedFromSnapshot = new AtomicInteger();
+    private final AtomicInteger warmedFromDatabase = new AtomicInteger();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean running;
+
+    public EmployeeWarmStart(EmployeeRepository employeeRepository,
+                             TransactionTemplate transactionTemplate,
+                             EmployeeListResponseCache employeeListResponseCache,
+                             KnownEmailFilter knownEmailFilter,
+                             @Value("${employees.snapshot.path}") Path path,
+                             @Value("${employees.snapshot.interval:5m}") Duration interval,
+                             @Value("${employees.snapshot.overlap:1m}") Duration overlap) {
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.employeeListResponseCache = employeeListResponseCache;
+        this.knownEmailFilter = knownEmailFilter;
+        this.path = path;
+        this.interval = interval;
+        this.overlap = overlap;
+    }
+
+    @Override
+    public void start() {
+        warm();
+        writer.scheduleWithFixedDelay(this::writeSnapshot, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        writer.shutdownNow();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // the web server only opens its connectors in a phase just short of Integer.MAX_VALUE
+        return 0;
+    }
+
+    /**
+     * Loads the snapshot, refreshes it against the table and fills both caches from the result;
+     * empty when startup stays cold.
+     */
+    public Optional<Refresh> warm() {
+        long start = System.nanoTime();
+        EmployeeSnapshot snapshot;
+        try {
+            snapshot = EmployeeSnapshot.read(path).orElse(null);
+        } catch (IOException e) {
+            log.warn("Could not read the employee snapshot {}, starting cold", path, e);
+            return Optional.empty();
+        }
+        if (snapshot == null) {
+            log.info("No employee snapshot at {}, starting cold", path);
+            return Optional.empty();
+        }
+
+        // refreshed inside the cache's rebuild, so a change committed meanwhile discards the body
+        AtomicReference<Refresh> refreshed = new AtomicReference<>();
+        try {
+            employeeListResponseCache.warm(() -> {
+                refreshed.set(refresh(snapshot));
+                return refreshed.get().snapshot().employees();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not bring the employee snapshot up to date, starting cold", e);
+            return Optional.empty();
+        }
+        Refresh refresh = refreshed.get();
+        knownEmailFilter.load(refresh.snapshot().employees().stream().map(Employee::getEmail));
+
+        snapshotRows.set(refresh.snapshot().employees().size());
+        warmedFromSnapshot.set(refresh.fromSnapshot());
+        warmedFromDatabase.set(refresh.changed() + refresh.idsRead());
+        log.info("Warmed {} employees from {} in {} ms: {} rows from the snapshot, {} changed and {} ids read from the database, {} deleted",
+                refresh.snapshot().employees().size(), path, (System.nanoTime() - start) / 1_000_000,
+                refresh.fromSnapshot(), refresh.changed(), refresh.idsRead(), refresh.deleted());
+        return Optional.of(refresh);
+    }
+
+    /**
+     * Refreshes the snapshot on disk, or writes the first one from a full read.
+     */
+    public void writeSnapshot() {
+        try {
+            EmployeeSnapshot base;
+            try {
+                base = EmployeeSnapshot.read(path).orElse(EmployeeSnapshot.EMPTY);
+            } catch (IOException e) {
+                log.warn("Replacing unreadable employee snapshot {}", path, e);
+                base = EmployeeSnapshot.EMPTY;
+            }
+            EmployeeSnapshot snapshot = refresh(base).snapshot();
+            snapshot.write(path);
+            snapshotRows.set(snapshot.employees().size());
+            written.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not write the employee snapshot {}", path, e);
+        }
+    }
+
+    Refresh refresh(EmployeeSnapshot base) {
+        // one read-only transaction, so the changed rows, the count and the ids agree
+        return readOnlyTransaction.execute(status -> {
+            // without a mark everything counts as changed
+            List<Employee> changed = base.highWaterMark().equals(Instant.EPOCH)
+                    ? employeeRepository.findAll()
+                    : employeeRepository.findByUpdatedAtAfter(base.highWaterMark().minus(overlap));
+            Map<Long, Employee> changedById = new HashMap<>(changed.size() * 2);
+            Instant highWaterMark = base.highWaterMark();
+            for (Employee employee : changed) {
+                changedById.put(employee.getId(), employee);
+                if (employee.getUpdatedAt() != null && employee.getUpdatedAt().isAfter(highWaterMark))
+                    highWaterMark = employee.getUpdatedAt();
+            }
+
+            List<Employee> employees = new ArrayList<>(base.employees().size() + changed.size());
+            for (Employee employee : base.employees()) {
+                Employee current = changedById.remove(employee.getId());
+                employees.add(current != null ? current : employee);
+            }
+            if (!changedById.isEmpty()) {
+                // new rows, mostly past the end already
+                employees.addAll(changedById.values());
+                employees.sort(Comparator.comparingLong(Employee::getId));
+            }
+
+            // every stored row is in the list by now, any surplus was deleted
+            int idsRead = 0;
+            int deleted = 0;
+            if (employeeRepository.count() != employees.size()) {
+                long[] ids;
+                try (Stream<Long> stored = employeeRepository.streamAllIds()) {
+                    ids = stored.mapToLong(Long::longValue).toArray();
+                }
+                Arrays.sort(ids);
+                int before = employees.size();
+                employees.removeIf(employee -> Arrays.binarySearch(ids, employee.getId()) < 0);
+                idsRead = ids.length;
+                deleted = before - employees.size();
+            }
+            return new Refresh(new EmployeeSnapshot(highWaterMark, employees),
+                    base.employees().size(), changed.size(), idsRead, deleted);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employees.snapshot.rows", snapshotRows, AtomicInteger::get)
+                .description("Employees in the last snapshot written or loaded")
+                .register(registry);
+        Gauge.builder("employees.warm.start.rows", warmedFromSnapshot, AtomicInteger::get)
+                .description("Rows the startup warm-up took from each source")
+                .tag("source", "snapshot")
+                .register(registry);
+        Gauge.builder("employees.warm.start.rows", warmedFromDatabase, AtomicInteger::get)
+                .description("Rows the startup warm-up took from each source")
+                .tag("source", "database")
+                .register(registry);
+        FunctionCounter.builder("employees.snapshot.writes", written, LongAdder::sum)
+                .description("Periodic snapshot writes")
+                .tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("employees.snapshot.writes", failed, LongAdder::sum)
+                .description("Periodic snapshot writes")
+                .tag("result", "failed")
+                .register(registry);
+    }
+
+    /**
+     * The refreshed snapshot and what it took: rows kept from the old one, rows read because they
+     * changed, ids read to find deletions and rows dropped as deleted.
+     */
+    public record Refresh(EmployeeSnapshot snapshot, int fromSnapshot, int changed, int idsRead, int deleted) {
+    }
+}
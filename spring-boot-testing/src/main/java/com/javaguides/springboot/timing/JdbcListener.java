@@ -0,0 +1,13 @@
+package com.javaguides.springboot.timing;
+
+/**
+ * Callback for JDBC activity seen through {@link ObservedDataSource}. Implementations are called
+ * on the thread doing the JDBC work and must be cheap.
+ */
+public interface JdbcListener {
+
+    default void connectionAcquired(long nanos) {
+    }
+
+    void statementExecuted(String sql, long nanos);
+}
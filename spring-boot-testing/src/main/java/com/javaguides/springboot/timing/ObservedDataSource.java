@@ -0,0 +1,107 @@
+package com.javaguides.springboot.timing;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link DataSource} wrapper reporting connection acquisition (the pool wait) and every statement
+ * execution to the registered {@link JdbcListener}s.
+ */
+public class ObservedDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<JdbcListener> listenerProvider;
+    private volatile JdbcListener[] listeners;
+
+    public ObservedDataSource(DataSource targetDataSource, ObjectProvider<JdbcListener> listenerProvider) {
+        super(targetDataSource);
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return observe(connection, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return observe(connection, System.nanoTime() - start);
+    }
+
+    private Connection observe(Connection connection, long acquireNanos) {
+        JdbcListener[] current = listeners();
+        for (JdbcListener listener : current)
+            listener.connectionAcquired(acquireNanos);
+        return proxy(Connection.class, new ConnectionHandler(connection, current));
+    }
+
+    private JdbcListener[] listeners() {
+        JdbcListener[] current = listeners;
+        if (current == null) {
+            // resolved lazily, the listeners may not exist yet while the DataSource is being post-processed
+            current = listenerProvider.orderedStream().toArray(JdbcListener[]::new);
+            listeners = current;
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ObservedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private record ConnectionHandler(Connection target, JdbcListener[] listeners) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ObservedDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler(result, null, listeners));
+                case "prepareStatement" -> proxy(PreparedStatement.class, new StatementHandler(result, (String) args[0], listeners));
+                case "prepareCall" -> proxy(CallableStatement.class, new StatementHandler(result, (String) args[0], listeners));
+                default -> result;
+            };
+        }
+    }
+
+    private record StatementHandler(Object target, String preparedSql, JdbcListener[] listeners) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute"))
+                return ObservedDataSource.invoke(target, method, args);
+
+            long start = System.nanoTime();
+            try {
+                return ObservedDataSource.invoke(target, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                String sql = args != null && args.length > 0 && args[0] instanceof String statementSql ? statementSql : preparedSql;
+                for (JdbcListener listener : listeners)
+                    listener.statementExecuted(sql, elapsed);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.javaguides.springboot.timing;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every {@link DataSource} bean in an {@link ObservedDataSource}.
+ */
+@Component
+public class ObservedDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<JdbcListener> listeners;
+
+    public ObservedDataSourcePostProcessor(ObjectProvider<JdbcListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ObservedDataSource))
+            return new ObservedDataSource(dataSource, listeners);
+        return bean;
+    }
+}
@@ -0,0 +1,109 @@
+package com.javaguides.springboot.timing;
+
+/**
+ * Per-request phase accumulator. One instance is reused per thread, so recording a phase costs a
+ * {@link ThreadLocal} lookup and a few field updates but no allocation.
+ * <p>
+ * Only work done on the request thread is attributed; calls running on other threads (background
+ * cache rebuilds, async executors) see no {@link #current() current} timing and are ignored.
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = ThreadLocal.withInitial(RequestTiming::new);
+
+    private boolean active;
+    private long startNanos;
+    private long handlerEndNanos;
+    private long totalNanos;
+    private int serviceDepth;
+    private long serviceNanos;
+    private int sqlCount;
+    private long sqlNanos;
+    private int connectionCount;
+    private long connectionAcquireNanos;
+
+    private RequestTiming() {
+    }
+
+    static RequestTiming begin() {
+        RequestTiming timing = CURRENT.get();
+        timing.active = true;
+        timing.startNanos = System.nanoTime();
+        timing.handlerEndNanos = 0;
+        timing.totalNanos = 0;
+        timing.serviceDepth = 0;
+        timing.serviceNanos = 0;
+        timing.sqlCount = 0;
+        timing.sqlNanos = 0;
+        timing.connectionCount = 0;
+        timing.connectionAcquireNanos = 0;
+        return timing;
+    }
+
+    /**
+     * The timing of the request running on this thread, or {@code null} outside of one.
+     */
+    public static RequestTiming current() {
+        RequestTiming timing = CURRENT.get();
+        return timing.active ? timing : null;
+    }
+
+    void end() {
+        totalNanos = System.nanoTime() - startNanos;
+        active = false;
+    }
+
+    /**
+     * Marks the start of a service call; nested calls are only counted once.
+     */
+    long enterService() {
+        serviceDepth++;
+        return System.nanoTime();
+    }
+
+    void exitService(long enteredNanos) {
+        if (--serviceDepth == 0)
+            serviceNanos += System.nanoTime() - enteredNanos;
+    }
+
+    void recordStatement(long nanos) {
+        sqlCount++;
+        sqlNanos += nanos;
+    }
+
+    void recordConnectionAcquired(long nanos) {
+        connectionCount++;
+        connectionAcquireNanos += nanos;
+    }
+
+    void markHandlerEnd() {
+        if (handlerEndNanos == 0)
+            handlerEndNanos = System.nanoTime();
+    }
+
+    int getSqlCount() {
+        return sqlCount;
+    }
+
+    /**
+     * Time between the handler returning its body and the end of the request, i.e. message
+     * conversion (Jackson) and writing the response.
+     */
+    long getSerializationNanos() {
+        return handlerEndNanos == 0 ? 0 : startNanos + totalNanos - handlerEndNanos;
+    }
+
+    String toServerTimingHeader() {
+        return new StringBuilder(160)
+                .append("total;dur=").append(millis(totalNanos))
+                .append(", service;dur=").append(millis(serviceNanos))
+                .append(", sql;dur=").append(millis(sqlNanos)).append(";desc=\"").append(sqlCount).append(" statements\"")
+                .append(", db-pool;dur=").append(millis(connectionAcquireNanos)).append(";desc=\"").append(connectionCount).append(" connections\"")
+                .append(", serialization;dur=").append(millis(getSerializationNanos()))
+                .toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.javaguides.springboot.timing;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class RequestTimingJdbcListener implements JdbcListener {
+
+    @Override
+    public void connectionAcquired(long nanos) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null)
+            timing.recordConnectionAcquired(nanos);
+    }
+
+    @Override
+    public void statementExecuted(String sql, long nanos) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null)
+            timing.recordStatement(nanos);
+    }
+}
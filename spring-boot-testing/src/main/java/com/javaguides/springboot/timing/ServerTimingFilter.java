@@ -0,0 +1,91 @@
+package com.javaguides.springboot.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Breaks each {@code /api/employees/} request down into service, SQL, connection-pool and
+ * serialization time.
+ * <p>
+ * When the request carries {@value #DEBUG_HEADER} the breakdown is returned as a
+ * {@code Server-Timing} header; the body is buffered for that request only, since the header can
+ * only be set once serialization has finished. Other requests are sampled into the log.
+ */
+@Slf4j
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Timing";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final String API_PREFIX = "/api/employees/";
+    private static final String STREAM_PATH = API_PREFIX + "stream";
+
+    private final double logSampleRate;
+
+    public ServerTimingFilter(@Value("${employees.timing.log-sample-rate:0.01}") double logSampleRate) {
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith(API_PREFIX) || uri.equals(STREAM_PATH);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the buffered body of a debug request is only complete on the final async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            copyBufferedBody(request, response);
+            return;
+        }
+
+        boolean debug = request.getHeader(DEBUG_HEADER) != null;
+        HttpServletResponse target = debug ? new ContentCachingResponseWrapper(response) : response;
+        RequestTiming timing = RequestTiming.begin();
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            timing.end();
+        }
+
+        if (isAsyncStarted(request)) {
+            // work continues on another thread, which this timing cannot see
+            return;
+        }
+        if (debug) {
+            target.setHeader(SERVER_TIMING_HEADER, timing.toServerTimingHeader());
+            ((ContentCachingResponseWrapper) target).copyBodyToResponse();
+        } else if (ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            log.info("{} {} status={} {}", request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    timing.toServerTimingHeader());
+        }
+    }
+
+    private void copyBufferedBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (isAsyncStarted(request))
+            return;
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null)
+            wrapper.copyBodyToResponse();
+    }
+}
@@ -0,0 +1,35 @@
+package com.javaguides.springboot.timing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+/**
+ * Attributes the time spent inside {@link Service @Service} beans to the current
+ * {@link RequestTiming}. The advice is added in front of existing advisors so transaction
+ * handling is part of the service phase.
+ */
+@Component
+public class ServiceTimingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public ServiceTimingPostProcessor() {
+        MethodInterceptor interceptor = invocation -> {
+            RequestTiming timing = RequestTiming.current();
+            if (timing == null)
+                return invocation.proceed();
+
+            long entered = timing.enterService();
+            try {
+                return invocation.proceed();
+            } finally {
+                timing.exitService(entered);
+            }
+        };
+        this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true), interceptor);
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+}
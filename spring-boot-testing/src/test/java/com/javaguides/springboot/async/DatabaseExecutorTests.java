@@ -0,0 +1,80 @@
+package com.javaguides.springboot.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseExecutorTests {
+
+    private DatabaseExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @DisplayName("A full queue rejects new work immediately")
+    @Test
+    void givenBusyThreadAndFullQueue_whenSupply_thenRejected() throws Exception {
+        // given
+        executor = new DatabaseExecutor(1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        executor.supply(() -> {
+            running.countDown();
+            await(release);
+            return 1;
+        });
+        running.await();
+        CompletableFuture<Integer> queued = executor.supply(() -> 2);
+
+        // when
+        CompletableFuture<Integer> rejected = executor.supply(() -> 3);
+
+        // then
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+        assertThat(queued.get()).isEqualTo(2);
+    }
+
+    @DisplayName("Work still queued when its caller timed out is dropped")
+    @Test
+    void givenTimedOutCall_whenDequeued_thenNotRun() throws Exception {
+        // given
+        executor = new DatabaseExecutor(1, 10, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> blocking = executor.supply(() -> {
+            await(release);
+            return 1;
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // when
+        CompletableFuture<Boolean> queued = executor.supply(() -> ran.getAndSet(true));
+
+        // then
+        assertThatThrownBy(queued::join).hasCauseInstanceOf(TimeoutException.class);
+        release.countDown();
+        assertThatThrownBy(blocking::join).hasCauseInstanceOf(TimeoutException.class);
+        executor.supply(() -> 0).get();
+        assertThat(ran).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
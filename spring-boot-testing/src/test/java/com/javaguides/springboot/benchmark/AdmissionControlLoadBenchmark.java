@@ -0,0 +1,195 @@
+package com.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.controller.EmployeeController;
+import com.javaguides.springboot.feed.EmployeeChangeFeed;
+import com.javaguides.springboot.idempotency.IdempotencyStore;
+import com.javaguides.springboot.limiter.AdmissionControlFilter;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Open-loop overload test of {@link AdmissionControlFilter} in front of the real
+ * {@link EmployeeController}, through MockMvc. The service behind it waits for one of
+ * {@value #DB_CONNECTIONS} connections and holds it for {@value #SERVICE_TIME_MILLIS} ms, standing
+ * in for a saturated pool. {@code getById} reads are offered at twice that capacity, {@code create}
+ * writes at a tenth of it, from a Tomcat-sized worker pool. Goodput counts only 2xx responses that
+ * finish within the client deadline.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=AdmissionControlLoadBenchmark}.
+ */
+class AdmissionControlLoadBenchmark {
+
+    private static final int DB_CONNECTIONS = 8;
+    private static final long SERVICE_TIME_MILLIS = 40;
+    private static final long DEADLINE_NANOS = Duration.ofMillis(500).toNanos();
+    private static final int CAPACITY_PER_SECOND = (int) (DB_CONNECTIONS * 1000 / SERVICE_TIME_MILLIS);
+    private static final int WORKERS = 200;
+    private static final Duration RUN = Duration.ofSeconds(5);
+
+    @DisplayName("The filter sheds reads with 503 and Retry-After, keeps goodput and admits writes under 2x overload")
+    @Test
+    void givenOverload_whenFilterInFront_thenGoodputAndWritesHold() throws Exception {
+        Result unfiltered = run(false);
+        Result filtered = run(true);
+
+        System.out.printf("%-10s %10s %10s %12s %12s %12s %14s%n", "mode", "offered/s", "goodput/s",
+                "reads 503/s", "writes 503/s", "writes ok/s", "admitted p99 ms");
+        for (Result result : new Result[]{unfiltered, filtered})
+            System.out.printf("%-10s %10d %10d %12d %12d %12d %14.0f%n", result.mode(), result.offered(),
+                    result.goodput(), result.rejectedReads(), result.rejectedWrites(), result.writeGoodput(),
+                    result.admittedP99Millis());
+
+        assertThat(filtered.goodput()).isGreaterThan(unfiltered.goodput());
+        assertThat(filtered.goodput()).isGreaterThan(CAPACITY_PER_SECOND / 2);
+        assertThat(filtered.rejectedReads()).isPositive();
+        assertThat(filtered.rejectedWithoutRetryAfter()).isZero();
+        assertThat(filtered.admittedP99Millis()).isLessThan(DEADLINE_NANOS / 1e6);
+        // writes have their own limit, the flood of reads does not lock them out
+        assertThat(filtered.writeGoodput()).isGreaterThan(filtered.offeredWrites() / 2);
+        assertThat(unfiltered.rejectedReads() + unfiltered.rejectedWrites()).isZero();
+    }
+
+    private Result run(boolean filtered) throws InterruptedException {
+        Semaphore database = new Semaphore(DB_CONNECTIONS, true);
+        MockMvc mockMvc = mockMvc(database, filtered);
+
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        ScheduledExecutorService arrivals = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger offered = new AtomicInteger();
+        AtomicInteger offeredWrites = new AtomicInteger();
+        Counts counts = new Counts();
+        long end = System.nanoTime() + RUN.toNanos();
+
+        long intervalMicros = 1_000_000L / (CAPACITY_PER_SECOND * 2);
+        arrivals.scheduleAtFixedRate(() -> {
+            long arrival = System.nanoTime();
+            if (arrival > end)
+                return;
+            // one write for every twenty reads, a tenth of capacity
+            boolean write = offered.incrementAndGet() % 20 == 0;
+            if (write)
+                offeredWrites.incrementAndGet();
+            workers.execute(() -> handle(mockMvc, write, arrival, end, counts));
+        }, 0, intervalMicros, TimeUnit.MICROSECONDS);
+
+        Thread.sleep(RUN.toMillis());
+        arrivals.shutdownNow();
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+
+        long seconds = RUN.toSeconds();
+        long[] latencies = counts.admittedLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        double p99 = latencies.length == 0 ? 0 : latencies[(int) (latencies.length * 0.99)] / 1e6;
+        return new Result(filtered ? "filter" : "none", offered.get() / seconds, offeredWrites.get() / seconds,
+                counts.goodput.get() / seconds, counts.writeGoodput.get() / seconds,
+                counts.rejectedReads.get() / seconds, counts.rejectedWrites.get() / seconds,
+                counts.rejectedWithoutRetryAfter.get(), p99);
+    }
+
+    private static MockMvc mockMvc(Semaphore database, boolean filtered) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        // stub only, recording thousands of invocations per second would be the bottleneck
+        EmployeeService employeeService = mock(EmployeeService.class, withSettings().stubOnly());
+        Employee employee = Employee.builder().id(1).firstName("Ada").lastName("Lovelace").email("ada@example.com").build();
+        given(employeeService.getEmployeeById(anyLong())).willAnswer(invocation -> {
+            query(database);
+            return Optional.of(employee);
+        });
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            query(database);
+            return invocation.getArgument(0);
+        });
+
+        EmployeeController controller = new EmployeeController(employeeService,
+                new IdempotencyStore(objectMapper, Duration.ofMinutes(10), 10_000, 64),
+                mock(EmployeeChangeFeed.class), mock(EmployeeListResponseCache.class));
+        StandaloneMockMvcBuilder builder = MockMvcBuilders.standaloneSetup(controller);
+        if (filtered)
+            builder.addFilters(new AdmissionControlFilter(DB_CONNECTIONS, DB_CONNECTIONS / 2, 256,
+                    Duration.ofMillis(100), Duration.ofSeconds(1)));
+        return builder.build();
+    }
+
+    private static void query(Semaphore database) throws InterruptedException {
+        database.acquire();
+        try {
+            Thread.sleep(SERVICE_TIME_MILLIS);
+        } finally {
+            database.release();
+        }
+    }
+
+    private static void handle(MockMvc mockMvc, boolean write, long arrival, long end, Counts counts) {
+        RequestBuilder request = write
+                ? post("/api/employees/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Ada\",\"lastName\":\"Lovelace\",\"email\":\"ada@example.com\"}")
+                : get("/api/employees/getById/{id}", 1);
+        MockHttpServletResponse response;
+        try {
+            response = mockMvc.perform(request).andReturn().getResponse();
+        } catch (Exception e) {
+            // interrupted by the shutdown at the end of the run
+            return;
+        }
+        long finished = System.nanoTime();
+
+        if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            (write ? counts.rejectedWrites : counts.rejectedReads).incrementAndGet();
+            if (response.getHeader(HttpHeaders.RETRY_AFTER) == null)
+                counts.rejectedWithoutRetryAfter.incrementAndGet();
+            return;
+        }
+        counts.admittedLatencies.add(finished - arrival);
+        if (response.getStatus() < 300 && finished <= end && finished - arrival <= DEADLINE_NANOS) {
+            counts.goodput.incrementAndGet();
+            if (write)
+                counts.writeGoodput.incrementAndGet();
+        }
+    }
+
+    private static final class Counts {
+        private final AtomicInteger goodput = new AtomicInteger();
+        private final AtomicInteger writeGoodput = new AtomicInteger();
+        private final AtomicInteger rejectedReads = new AtomicInteger();
+        private final AtomicInteger rejectedWrites = new AtomicInteger();
+        private final AtomicInteger rejectedWithoutRetryAfter = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Long> admittedLatencies = new ConcurrentLinkedQueue<>();
+    }
+
+    private record Result(String mode, long offered, long offeredWrites, long goodput, long writeGoodput,
+                          long rejectedReads, long rejectedWrites, int rejectedWithoutRetryAfter,
+                          double admittedP99Millis) {
+    }
+}
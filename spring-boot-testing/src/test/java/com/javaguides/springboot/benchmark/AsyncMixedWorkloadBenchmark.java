@@ -0,0 +1,159 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mixed workload against the running application: a few clients keep fetching the cached
+ * {@code getAll} while many more issue uncached multi-gets. With only {@value #TOMCAT_THREADS}
+ * servlet threads and {@value #POOL_SIZE} connections, the synchronous endpoint parks every servlet
+ * thread on the connection pool and the cache hits queue behind it; the async endpoint hands the
+ * database call to the bounded executor and the cache hits keep their own latency.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=AsyncMixedWorkloadBenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "server.tomcat.threads.max=" + AsyncMixedWorkloadBenchmark.TOMCAT_THREADS,
+        "spring.datasource.hikari.maximum-pool-size=" + AsyncMixedWorkloadBenchmark.POOL_SIZE,
+        "employees.async.queue-capacity=1000",
+        // keep admission control out of the comparison, it would otherwise shed part of the load
+        "employees.admission.read-limit=256",
+        "employees.admission.latency-threshold=1m"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AsyncMixedWorkloadBenchmark extends ContainerBaseTest {
+
+    static final int TOMCAT_THREADS = 16;
+    static final int POOL_SIZE = 4;
+
+    private static final int ROWS = 5_000;
+    private static final int IDS_PER_REQUEST = 200;
+    private static final int CACHED_CLIENTS = 4;
+    private static final int UNCACHED_CLIENTS = 48;
+    private static final Duration RUN = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newCachedThreadPool())
+            .build();
+
+    private long firstId;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("truncate table employees");
+        new EmployeeDataGenerator().insert(dataSource, 0, ROWS, 4);
+        firstId = jdbcTemplate.queryForObject("select min(id) from employees", Long.class);
+    }
+
+    @DisplayName("Cached reads next to uncached multi-gets, sync vs async")
+    @Test
+    void compareSyncWithAsync() throws Exception {
+        run("/api/employees/getByIds"); // warm-up
+        Result sync = run("/api/employees/getByIds");
+        Result async = run("/api/employees/async/getByIds");
+
+        System.out.printf("%-6s %16s %16s %12s %14s %10s%n",
+                "mode", "cached p50 (ms)", "cached p99 (ms)", "cached/s", "uncached/s", "shed");
+        for (Result result : List.of(sync, async))
+            System.out.printf("%-6s %16.1f %16.1f %12d %14d %10d%n", result.mode, result.cachedP50, result.cachedP99,
+                    result.cachedPerSecond, result.uncachedPerSecond, result.shed);
+    }
+
+    private Result run(String uncachedPath) throws InterruptedException {
+        List<Double> cachedLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger uncached = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        long end = System.nanoTime() + RUN.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CACHED_CLIENTS + UNCACHED_CLIENTS);
+        for (int i = 0; i < UNCACHED_CLIENTS; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    int status = send(uncachedPath + "?ids=" + randomIds(random));
+                    if (status == 200)
+                        uncached.incrementAndGet();
+                    else
+                        shed.incrementAndGet();
+                }
+            });
+        }
+        for (int i = 0; i < CACHED_CLIENTS; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    if (send("/api/employees/getAll") == 200)
+                        cachedLatencies.add((System.nanoTime() - start) / 1e6);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(RUN.toSeconds() + 60, TimeUnit.SECONDS);
+
+        List<Double> sorted = new ArrayList<>(cachedLatencies);
+        Collections.sort(sorted);
+        long seconds = RUN.toSeconds();
+        return new Result(uncachedPath.contains("/async/") ? "async" : "sync",
+                sorted.get(sorted.size() / 2), sorted.get((int) (sorted.size() * 0.99)),
+                sorted.size() / seconds, uncached.get() / seconds, shed.get());
+    }
+
+    private String randomIds(SplittableRandom random) {
+        StringJoiner ids = new StringJoiner(",");
+        for (int i = 0; i < IDS_PER_REQUEST; i++)
+            ids.add(String.valueOf(firstId + random.nextInt(ROWS)));
+        return ids.toString();
+    }
+
+    private int send(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private record Result(String mode, double cachedP50, double cachedP99, long cachedPerSecond,
+                          long uncachedPerSecond, int shed) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes and decodes a {@value #EMPLOYEES}-employee list as JSON, CBOR and Smile with the mappers
+ * the message converters use, and reports median encode/decode time and payload size, raw and
+ * gzipped.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=BinaryFormatBenchmark}.
+ */
+class BinaryFormatBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+    private static final int WARM_UP = 50;
+    private static final int ROUNDS = 200;
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @DisplayName("10K employees: encode/decode time and payload size per format")
+    @Test
+    void compareFormats() throws IOException {
+        AtomicLong ids = new AtomicLong();
+        List<Employee> employees = new EmployeeDataGenerator().employees(0, EMPLOYEES)
+                .peek(employee -> employee.setId(ids.incrementAndGet()))
+                .toList();
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.smile().build());
+
+        System.out.printf("%-6s %12s %12s %12s %12s%n", "format", "bytes", "gzip bytes", "encode (ms)", "decode (ms)");
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] body = mapper.writeValueAsBytes(employees);
+            assertThat(mapper.readValue(body, EMPLOYEE_LIST)).hasSize(EMPLOYEES);
+
+            double encode = median(() -> mapper.writeValueAsBytes(employees));
+            double decode = median(() -> mapper.readValue(body, EMPLOYEE_LIST));
+            System.out.printf("%-6s %,12d %,12d %12.2f %12.2f%n",
+                    entry.getKey(), body.length, gzip(body).length, encode, decode);
+        }
+    }
+
+    private static double median(IoAction action) throws IOException {
+        for (int i = 0; i < WARM_UP; i++)
+            action.run();
+        double[] millis = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[ROUNDS / 2];
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,128 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeUpsertResult;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+/**
+ * Nightly HR sync of a {@value #ROSTER_SIZE}-row roster through {@code EmployeeService.upsertEmployees}:
+ * <ul>
+ *     <li>initial load: every row is new,</li>
+ *     <li>nightly replay: the same roster with every {@value #RENAME_EVERY}th employee renamed
+ *     and {@value #NEW_ROWS} new hires, everything else unchanged,</li>
+ *     <li>per-row replay: the previous approach, {@code findByEmail} then {@code update} or
+ *     {@code create} for each employee, on the first {@value #PER_ROW_SAMPLE} rows only.</li>
+ * </ul>
+ * The roster is handed over in slices of {@value #SLICE_SIZE} to keep the test heap bounded;
+ * each slice is still split into the service's own chunked transactions.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=BulkUpsertBenchmark}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkUpsertBenchmark extends ContainerBaseTest {
+
+    private static final int ROSTER_SIZE = 1_000_000;
+    private static final int SLICE_SIZE = 100_000;
+    private static final int RENAME_EVERY = 20;
+    private static final int NEW_ROWS = 10_000;
+    private static final int PER_ROW_SAMPLE = 10_000;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final EmployeeDataGenerator generator = new EmployeeDataGenerator();
+
+    @BeforeAll
+    void clean() {
+        jdbcTemplate.execute("truncate table employees");
+    }
+
+    @DisplayName("Bulk upsert throughput on a 1M-row roster")
+    @Test
+    void measureUpsert() {
+        System.out.printf("%-16s %10s %10s %10s %10s %12s%n", "run", "rows", "inserted", "updated", "unchanged", "rows/s");
+
+        run("initial load", ROSTER_SIZE, null);
+        run("nightly replay", ROSTER_SIZE + NEW_ROWS, "-renamed");
+        perRowReplay();
+    }
+
+    private void run(String name, int rows, String renameSuffix) {
+        EmployeeUpsertResult result = EmployeeUpsertResult.EMPTY;
+        long start = System.nanoTime();
+        for (int from = 0; from < rows; from += SLICE_SIZE) {
+            List<Employee> slice = roster(from, Math.min(SLICE_SIZE, rows - from), renameSuffix);
+            EmployeeUpsertResult sliceResult = employeeService.upsertEmployees(slice);
+            result = result.plus(sliceResult.inserted(), sliceResult.updated(), sliceResult.unchanged());
+        }
+        print(name, rows, result, System.nanoTime() - start);
+    }
+
+    /**
+     * What the sync did before: one lookup and one write per roster row. The sample renames the
+     * same share of rows again, so it writes as often as the bulk replay did.
+     */
+    private void perRowReplay() {
+        long inserted = 0;
+        long updated = 0;
+        long unchanged = 0;
+        long start = System.nanoTime();
+        for (Employee employee : roster(0, PER_ROW_SAMPLE, "-renamed-again")) {
+            Optional<Employee> stored = employeeRepository.findByEmail(employee.getEmail());
+            if (stored.isEmpty()) {
+                employeeService.saveEmployee(employee);
+                inserted++;
+            } else if (!stored.get().getFirstName().equals(employee.getFirstName())
+                    || !stored.get().getLastName().equals(employee.getLastName())) {
+                stored.get().setFirstName(employee.getFirstName());
+                stored.get().setLastName(employee.getLastName());
+                employeeService.updateEmployee(stored.get());
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+        print("per-row replay", PER_ROW_SAMPLE, new EmployeeUpsertResult(inserted, updated, unchanged), System.nanoTime() - start);
+    }
+
+    /**
+     * Generated rows {@code [from, from + count)}; with a suffix, every {@value #RENAME_EVERY}th
+     * employee gets it appended to the last name.
+     */
+    private List<Employee> roster(long from, int count, String renameSuffix) {
+        return LongStream.range(from, from + count)
+                .mapToObj(index -> {
+                    Employee employee = generator.employee(index);
+                    if (renameSuffix != null && index % RENAME_EVERY == 0)
+                        employee.setLastName(employee.getLastName() + renameSuffix);
+                    return employee;
+                })
+                .toList();
+    }
+
+    private static void print(String name, long rows, EmployeeUpsertResult result, long nanos) {
+        System.out.printf("%-16s %10d %10d %10d %10d %12.0f%n", name, rows, result.inserted(), result.updated(),
+                result.unchanged(), rows / (nanos / 1e9));
+    }
+}
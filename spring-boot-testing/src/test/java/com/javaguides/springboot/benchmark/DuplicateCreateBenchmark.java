@@ -0,0 +1,63 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.exception.DuplicateEmployeeException;
+import com.javaguides.springboot.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+/**
+ * Cost of rejecting a duplicate create: the former {@link ResourceNotFoundException} filled in
+ * its stack trace on every throw, {@link DuplicateEmployeeException} does not. The throw happens
+ * {@value #STACK_DEPTH} frames deep, roughly where {@code saveEmployee} sits below Tomcat, the
+ * filter chain, Spring MVC and the transactional proxy.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=DuplicateCreateBenchmark}.
+ */
+class DuplicateCreateBenchmark {
+
+    private static final int STACK_DEPTH = 120;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    @DisplayName("Duplicate create rejection with and without stack trace capture")
+    @Test
+    void compareStackTraceCapture() {
+        Function<String, RuntimeException> before = email ->
+                new ResourceNotFoundException("Employee already exists with given email: " + email);
+        Function<String, RuntimeException> after = DuplicateEmployeeException::new;
+
+        measure(before, WARMUP);
+        measure(after, WARMUP);
+        double beforeNanos = measure(before, ITERATIONS);
+        double afterNanos = measure(after, ITERATIONS);
+
+        System.out.printf("%-28s %12s%n", "exception", "ns/rejection");
+        System.out.printf("%-28s %12.0f%n", "ResourceNotFoundException", beforeNanos);
+        System.out.printf("%-28s %12.0f%n", "DuplicateEmployeeException", afterNanos);
+        System.out.printf("%-28s %11.1fx%n", "speedup", beforeNanos / afterNanos);
+    }
+
+    private static double measure(Function<String, RuntimeException> exception, int iterations) {
+        long caught = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            try {
+                throwAtDepth(STACK_DEPTH, exception);
+            } catch (ResourceNotFoundException e) {
+                caught += e.getMessage().length();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (caught == 0)
+            throw new AssertionError("nothing caught");
+        return (double) elapsed / iterations;
+    }
+
+    private static void throwAtDepth(int depth, Function<String, RuntimeException> exception) {
+        if (depth == 0)
+            throw exception.apply("rodrigo1@gmail.com");
+        throwAtDepth(depth - 1, exception);
+    }
+}
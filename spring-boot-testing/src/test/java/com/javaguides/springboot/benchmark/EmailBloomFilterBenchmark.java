@@ -0,0 +1,49 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.bloom.ScalableBloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds a {@link ScalableBloomFilter} of 10M unique emails the way the startup load does (starting
+ * from the default 1M capacity) and reports build time, memory, lookup cost and the measured
+ * false-positive rate.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=EmailBloomFilterBenchmark}.
+ */
+class EmailBloomFilterBenchmark {
+
+    private static final int EMAILS = 10_000_000;
+    private static final int PROBES = 1_000_000;
+
+    @DisplayName("10M emails: build time, memory, lookup cost and false-positive rate")
+    @Test
+    void tenMillionEmails() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000_000, 0.01);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EMAILS; i++)
+            filter.add(email("employee", i));
+        long buildNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int falsePositives = 0;
+        for (int i = 0; i < PROBES; i++)
+            if (filter.mightContain(email("candidate", i)))
+                falsePositives++;
+        long probeNanos = System.nanoTime() - start;
+
+        double measuredRate = (double) falsePositives / PROBES;
+        System.out.printf("emails=%,d stages=%d build=%,d ms memory=%.1f MiB lookup=%.0f ns/op fpp measured=%.4f estimated=%.4f%n",
+                EMAILS, filter.stageCount(), buildNanos / 1_000_000, filter.memoryBytes() / (1024.0 * 1024.0),
+                (double) probeNanos / PROBES, measuredRate, filter.approximateFalsePositiveRate());
+
+        assertThat(measuredRate).isLessThan(0.01);
+    }
+
+    private static String email(String prefix, int i) {
+        return prefix + '.' + i + "@example.com";
+    }
+}
@@ -0,0 +1,79 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compares {@code n} single {@code getEmployeeById} calls against one {@code getEmployeesByIds}
+ * call for 10, 100 and 1,000 ids on the Testcontainers MySQL.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=MultiGetLatencyBenchmark}.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MultiGetLatencyBenchmark extends ContainerBaseTest {
+
+    private static final int ROWS = 2_000;
+    private static final int ITERATIONS = 7;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    private List<Long> ids;
+
+    @BeforeAll
+    void seed() {
+        employeeRepository.deleteAll();
+        List<Employee> employees = IntStream.range(0, ROWS)
+                .mapToObj(i -> Employee.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("multiget" + i + "@example.com")
+                        .build())
+                .toList();
+        ids = employeeRepository.saveAll(employees).stream().map(Employee::getId).toList();
+    }
+
+    @DisplayName("Single lookups vs one multi-get")
+    @Test
+    void compareSingleLookupsWithMultiGet() {
+        System.out.printf("%8s %16s %16s %8s%n", "ids", "single p50 (ms)", "multi p50 (ms)", "speedup");
+        for (int n : new int[]{10, 100, 1_000}) {
+            List<Long> requested = new ArrayList<>(ids.subList(0, n));
+            // one missing id per request to exercise explicit misses
+            requested.set(n - 1, -1L);
+
+            double single = median(() -> requested.forEach(employeeService::getEmployeeById));
+            double multi = median(() -> employeeService.getEmployeesByIds(requested));
+            System.out.printf("%8d %16.2f %16.2f %7.1fx%n", n, single, multi, single / multi);
+        }
+    }
+
+    private static double median(Runnable action) {
+        action.run(); // warm-up
+        double[] samples = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            samples[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(samples);
+        return samples[ITERATIONS / 2];
+    }
+}
@@ -0,0 +1,230 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Measures how {@link EmployeeRepository} lookups scale as {@code employees} grows from 1K to 10M
+ * rows on the Testcontainers MySQL. Each step appends generated rows, refreshes the statistics and
+ * times every method:
+ * <ul>
+ *     <li>cold: lookups of random rows right after the InnoDB buffer pool was flushed by scanning
+ *     a filler table twice its size, with {@code innodb_old_blocks_time=0} so the scan is not kept
+ *     out of the young sublist. The buffer pool reads (misses) per lookup are reported next to it
+ *     to show the pages really came from outside the pool; the OS page cache may still hold them,
+ *     so this is a buffer pool miss rather than a disk read,</li>
+ *     <li>warm: the same row looked up again and again.</li>
+ * </ul>
+ * {@code findAll} is only run up to {@value #FIND_ALL_MAX_ROWS} rows, beyond that it measures the
+ * heap rather than the query. Results are printed as a table and written to
+ * {@code target/repository-scaling.csv}, one line per size and method, ready for charting.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=RepositoryScalingBenchmark}; add
+ * {@code -Dscaling.max-rows=1000000} for a shorter run.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryScalingBenchmark extends ContainerBaseTest {
+
+    private static final long[] SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+    private static final long FIND_ALL_MAX_ROWS = 100_000;
+    private static final int LOAD_THREADS = 4;
+    private static final int COLD_SAMPLES = 25;
+    private static final int WARM_SAMPLES = 200;
+    private static final int FILLER_ROW_BYTES = 1024;
+    private static final Path CSV = Path.of("target", "repository-scaling.csv");
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    // the Testcontainers image gives root the application user's password
+    @Value("${spring.datasource.password}")
+    private String rootPassword;
+
+    private JdbcTemplate rootJdbcTemplate;
+
+    private final EmployeeDataGenerator generator = new EmployeeDataGenerator();
+    private final SplittableRandom random = new SplittableRandom(EmployeeDataGenerator.DEFAULT_SEED);
+
+    private long firstId;
+    private long oldBlocksTime;
+
+    @BeforeAll
+    void clean() {
+        jdbcTemplate.execute("truncate table employees");
+
+        // a scan only evicts the young sublist when its pages are promoted at once; setting it
+        // needs SYSTEM_VARIABLES_ADMIN, which the application user does not have
+        rootJdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "root", rootPassword));
+        oldBlocksTime = jdbcTemplate.queryForObject("select @@global.innodb_old_blocks_time", Long.class);
+        rootJdbcTemplate.execute("set global innodb_old_blocks_time = 0");
+        long poolBytes = jdbcTemplate.queryForObject("select @@global.innodb_buffer_pool_size", Long.class);
+        jdbcTemplate.execute("drop table if exists buffer_pool_filler");
+        jdbcTemplate.execute("create table buffer_pool_filler (id bigint auto_increment primary key, pad char(255) not null, "
+                + "pad2 char(255) not null, pad3 char(255) not null, pad4 char(255) not null)");
+        jdbcTemplate.update("insert into buffer_pool_filler (pad, pad2, pad3, pad4) values (?, ?, ?, ?)",
+                "x".repeat(255), "x".repeat(255), "x".repeat(255), "x".repeat(255));
+        for (long fillerRows = 1; fillerRows * FILLER_ROW_BYTES < 2 * poolBytes; fillerRows *= 2)
+            jdbcTemplate.execute("insert into buffer_pool_filler (pad, pad2, pad3, pad4) select pad, pad2, pad3, pad4 from buffer_pool_filler");
+        System.out.printf("-- buffer pool %d MB, filler %d MB%n", poolBytes >> 20,
+                jdbcTemplate.queryForObject("select count(*) from buffer_pool_filler", Long.class) * FILLER_ROW_BYTES >> 20);
+    }
+
+    @AfterAll
+    void restore() {
+        rootJdbcTemplate.execute("set global innodb_old_blocks_time = " + oldBlocksTime);
+        jdbcTemplate.execute("drop table if exists buffer_pool_filler");
+    }
+
+    @DisplayName("Repository lookup latency by table size")
+    @Test
+    void measureScaling() throws IOException {
+        long maxRows = Long.getLong("scaling.max-rows", SIZES[SIZES.length - 1]);
+        List<String> csv = new ArrayList<>();
+        csv.add("rows,method,cold_p50_us,cold_pool_misses,warm_p50_us,warm_p99_us");
+        System.out.printf("%10s %-20s %14s %16s %14s %14s%n", "rows", "method", "cold p50 (us)", "cold misses/op",
+                "warm p50 (us)", "warm p99 (us)");
+
+        long rows = 0;
+        for (long size : SIZES) {
+            if (size > maxRows)
+                break;
+            long start = System.nanoTime();
+            generator.insert(dataSource, rows, size - rows, LOAD_THREADS);
+            rows = size;
+            jdbcTemplate.queryForList("ANALYZE TABLE employees");
+            firstId = jdbcTemplate.queryForObject("select min(id) from employees", Long.class);
+            System.out.printf("-- loaded %,d rows in %d s%n", rows, (System.nanoTime() - start) / 1_000_000_000);
+
+            for (Map.Entry<String, Consumer<Employee>> method : methods(rows).entrySet()) {
+                double[] result = measure(rows, method.getValue(), method.getKey().equals("findAll"));
+                System.out.printf("%10d %-20s %14.1f %16.1f %14.1f %14.1f%n", rows, method.getKey(), result[0], result[1],
+                        result[2], result[3]);
+                csv.add(String.format("%d,%s,%.1f,%.1f,%.1f,%.1f", rows, method.getKey(), result[0], result[1], result[2], result[3]));
+            }
+        }
+
+        Files.createDirectories(CSV.getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(CSV))) {
+            csv.forEach(writer::println);
+        }
+        System.out.println("-- written to " + CSV.toAbsolutePath());
+    }
+
+    private Map<String, Consumer<Employee>> methods(long rows) {
+        Map<String, Consumer<Employee>> methods = new LinkedHashMap<>();
+        methods.put("findByEmail", employee -> employeeRepository.findByEmail(employee.getEmail()));
+        methods.put("findByJPQL", singleResult(employee -> employeeRepository.findByJPQL(employee.getFirstName(), employee.getLastName())));
+        methods.put("findByNativeQuery", singleResult(employee -> employeeRepository.findByNativeQuery(employee.getFirstName(), employee.getLastName())));
+        methods.put("findById", employee -> employeeRepository.findById(employee.getId()));
+        if (rows <= FIND_ALL_MAX_ROWS)
+            methods.put("findAll", employee -> employeeRepository.findAll());
+        return methods;
+    }
+
+    /**
+     * Common name pairs match several rows, which the single-result name queries reject only
+     * after the query has run; the lookup itself is what is being timed.
+     */
+    private static Consumer<Employee> singleResult(Consumer<Employee> lookup) {
+        return employee -> {
+            try {
+                lookup.accept(employee);
+            } catch (IncorrectResultSizeDataAccessException e) {
+                // several matching rows, see above
+            }
+        };
+    }
+
+    /**
+     * @return cold p50 in microseconds, buffer pool misses per cold lookup, warm p50 and warm p99
+     * in microseconds
+     */
+    private double[] measure(long rows, Consumer<Employee> lookup, boolean wholeTable) {
+        int coldSamples = wholeTable ? 1 : COLD_SAMPLES;
+        int warmSamples = wholeTable ? 20 : WARM_SAMPLES;
+
+        flushBufferPool();
+        long missesBefore = bufferPoolMisses();
+        double[] cold = new double[coldSamples];
+        for (int i = 0; i < coldSamples; i++)
+            cold[i] = time(lookup, randomRow(rows));
+        double coldMisses = (bufferPoolMisses() - missesBefore) / (double) coldSamples;
+
+        Employee warmRow = randomRow(rows);
+        for (int i = 0; i < 10; i++)
+            lookup.accept(warmRow);
+        double[] warm = new double[warmSamples];
+        for (int i = 0; i < warmSamples; i++)
+            warm[i] = time(lookup, warmRow);
+
+        Arrays.sort(cold);
+        Arrays.sort(warm);
+        return new double[]{cold[coldSamples / 2], coldMisses, warm[warmSamples / 2], warm[(int) (warmSamples * 0.99)]};
+    }
+
+    /**
+     * Pushes the employees pages out of the buffer pool. The filler is twice the pool, and the
+     * condition on an unindexed column makes it a full scan of the clustered index.
+     */
+    private void flushBufferPool() {
+        jdbcTemplate.queryForObject("select count(*) from buffer_pool_filler where pad4 <> ''", Long.class);
+    }
+
+    private long bufferPoolMisses() {
+        return Long.parseLong(jdbcTemplate.queryForObject(
+                "show global status like 'Innodb_buffer_pool_reads'", (resultSet, rowNumber) -> resultSet.getString(2)));
+    }
+
+    private static double time(Consumer<Employee> lookup, Employee employee) {
+        long start = System.nanoTime();
+        lookup.accept(employee);
+        return (System.nanoTime() - start) / 1e3;
+    }
+
+    /**
+     * A random stored row, rebuilt from the generator instead of read back so the database pages
+     * stay cold. Parallel loading interleaves ids, so the id is drawn separately from the stored
+     * range rather than derived from the row.
+     */
+    private Employee randomRow(long rows) {
+        Employee employee = generator.employee(random.nextLong(rows));
+        employee.setId(firstId + random.nextLong(rows));
+        return employee;
+    }
+}
@@ -0,0 +1,144 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.integration.config.ShardContainers;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.sharding.EmployeeIdGenerator;
+import com.javaguides.springboot.sharding.ShardRing;
+import com.javaguides.springboot.sharding.ShardedEmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of {@link ShardedEmployeeRepository} on 1, 2 and 4 MySQL instances, each limited to
+ * one CPU (see {@link ShardContainers}): loading {@value #ROWS} employees through the bulk upsert,
+ * then {@value #CLIENTS} clients running single-shard operations for {@code RUN}, 70% by email,
+ * 20% by id and 10% inserts, and finally the scatter-gather {@code getAll} projection of all emails.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=ShardingThroughputBenchmark}.
+ */
+class ShardingThroughputBenchmark {
+
+    private static final int[] SHARDS = {1, 2, 4};
+    private static final int ROWS = 200_000;
+    private static final int UPSERT_CHUNK = 1_000;
+    private static final int CLIENTS = 32;
+    private static final int POOL_SIZE = 16;
+    private static final Duration RUN = Duration.ofSeconds(20);
+    private static final int GET_ALL_SAMPLES = 5;
+
+    private final EmployeeDataGenerator generator = new EmployeeDataGenerator();
+
+    @DisplayName("Throughput at 1, 2 and 4 shards")
+    @Test
+    void measureThroughputByShardCount() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (int shards : SHARDS)
+            results.add(measure(shards));
+
+        System.out.printf("%6s %12s %12s %12s %12s %16s%n",
+                "shards", "load rows/s", "ops/s", "p50 (us)", "p99 (us)", "getAll p50 (ms)");
+        for (Result result : results)
+            System.out.printf("%6d %12d %12d %12.0f %12.0f %16.0f%n", result.shards(), result.loadRowsPerSecond(),
+                    result.opsPerSecond(), result.p50Micros(), result.p99Micros(), result.getAllMillis());
+    }
+
+    private Result measure(int shards) throws Exception {
+        Map<String, HikariDataSource> dataSources = ShardContainers.dataSources(shards, POOL_SIZE);
+        ShardedEmployeeRepository employeeRepository = new ShardedEmployeeRepository(
+                new LinkedHashMap<String, DataSource>(dataSources), ShardRing.of(dataSources.keySet()),
+                new EmployeeIdGenerator(0), CLIENTS);
+        try {
+            long start = System.nanoTime();
+            for (int from = 0; from < ROWS; from += UPSERT_CHUNK)
+                employeeRepository.upsertByEmail(generator.employees(from, UPSERT_CHUNK).toList());
+            long loadRowsPerSecond = (long) (ROWS / ((System.nanoTime() - start) / 1e9));
+
+            long[] ids;
+            try (Stream<Long> stored = employeeRepository.streamAllIds()) {
+                ids = stored.mapToLong(Long::longValue).toArray();
+            }
+            assertThat(ids).hasSize(ROWS);
+
+            long[] latencies = run(employeeRepository, ids);
+            Arrays.sort(latencies);
+
+            double[] getAll = new double[GET_ALL_SAMPLES];
+            for (int i = 0; i < GET_ALL_SAMPLES; i++) {
+                long getAllStart = System.nanoTime();
+                employeeRepository.findAllProjected(EnumSet.of(EmployeeField.EMAIL));
+                getAll[i] = (System.nanoTime() - getAllStart) / 1e6;
+            }
+            Arrays.sort(getAll);
+
+            return new Result(shards, loadRowsPerSecond, latencies.length / RUN.toSeconds(),
+                    latencies[latencies.length / 2] / 1e3, latencies[(int) (latencies.length * 0.99)] / 1e3,
+                    getAll[GET_ALL_SAMPLES / 2]);
+        } finally {
+            employeeRepository.shutdown();
+            dataSources.values().forEach(HikariDataSource::close);
+        }
+    }
+
+    /**
+     * @return the latency of every operation in nanoseconds
+     */
+    private long[] run(ShardedEmployeeRepository employeeRepository, long[] ids) throws Exception {
+        AtomicLong nextIndex = new AtomicLong(ROWS);
+        long end = System.nanoTime() + RUN.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<long[]>> perClient = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                perClient.add(clients.submit(() -> {
+                    long[] latencies = new long[1 << 16];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        int operation = random.nextInt(10);
+                        long start = System.nanoTime();
+                        if (operation < 7)
+                            employeeRepository.findByEmail(generator.employee(random.nextInt(ROWS)).getEmail());
+                        else if (operation < 9)
+                            employeeRepository.findById(ids[random.nextInt(ids.length)]);
+                        else
+                            employeeRepository.save(generator.employee(nextIndex.getAndIncrement()));
+                        if (count == latencies.length)
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> latencies = new ArrayList<>();
+            for (Future<long[]> client : perClient)
+                latencies.add(client.get());
+            return latencies.stream().flatMapToLong(Arrays::stream).toArray();
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private record Result(int shards, long loadRowsPerSecond, long opsPerSecond, double p50Micros,
+                          double p99Micros, double getAllMillis) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Full {@code getAll} list of {@value #ROWS} employees against sparse fieldsets: response size,
+ * plain and gzip, and latency both when the body has to be built (select, serialization and
+ * gzip) and when it is served from {@link EmployeeListResponseCache}.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=SparseFieldsetBenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SparseFieldsetBenchmark extends ContainerBaseTest {
+
+    private static final int ROWS = 100_000;
+    private static final int BUILD_SAMPLES = 20;
+    private static final int CACHED_SAMPLES = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeListResponseCache employeeListResponseCache;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("truncate table employees");
+        new EmployeeDataGenerator().insert(dataSource, 0, ROWS, 4);
+    }
+
+    @DisplayName("getAll payload size and latency by fieldset")
+    @Test
+    void compareFieldsets() throws Exception {
+        System.out.printf("%-26s %12s %12s %16s %16s%n", "fields", "json (KB)", "gzip (KB)", "build p50 (ms)", "cached p50 (ms)");
+        for (String fields : List.of("", "id,firstName,lastName,email", "id,email", "email")) {
+            String path = "/api/employees/getAll" + (fields.isEmpty() ? "" : "?fields=" + fields);
+            int json = send(path, false).length;
+            int gzip = send(path, true).length;
+
+            double[] build = new double[BUILD_SAMPLES];
+            for (int i = 0; i < BUILD_SAMPLES; i++) {
+                employeeListResponseCache.invalidate();
+                build[i] = time(path);
+            }
+            double[] cached = new double[CACHED_SAMPLES];
+            for (int i = 0; i < CACHED_SAMPLES; i++)
+                cached[i] = time(path);
+
+            System.out.printf("%-26s %12.0f %12.0f %16.1f %16.2f%n", fields.isEmpty() ? "(entity)" : fields,
+                    json / 1024.0, gzip / 1024.0, median(build), median(cached));
+        }
+    }
+
+    private double time(String path) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        send(path, false);
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private byte[] send(String path, boolean gzip) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (gzip)
+            request.header("Accept-Encoding", "gzip");
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    private static double median(double[] samples) {
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+}
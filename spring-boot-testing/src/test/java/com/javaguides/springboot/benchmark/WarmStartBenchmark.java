@@ -0,0 +1,160 @@
+package com.javaguides.springboot.benchmark;
+
+import com.javaguides.springboot.bloom.KnownEmailFilter;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.data.EmployeeDataGenerator;
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.snapshot.EmployeeWarmStart;
+import com.javaguides.springboot.timing.JdbcListener;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What it takes to fill the {@code getAll} cache and the known email filter for {@value #ROWS}
+ * employees, cold from the table against warm from a snapshot taken before 1% of the rows
+ * changed, {@value #INSERTED} were added and {@value #DELETED} deleted: time, statements and
+ * rows read from the database.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=WarmStartBenchmark}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        // driven by the benchmark itself
+        "employees.snapshot.enabled=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WarmStartBenchmark extends ContainerBaseTest {
+
+    private static final int ROWS = 200_000;
+    private static final int INSERTED = 1_000;
+    private static final int DELETED = 1_000;
+    private static final int SAMPLES = 5;
+
+    @TestConfiguration
+    static class StatementCounterConfiguration {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    static class StatementCounter implements JdbcListener {
+
+        final AtomicInteger statements = new AtomicInteger();
+
+        @Override
+        public void statementExecuted(String sql, long nanos) {
+            statements.incrementAndGet();
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EmployeeListResponseCache employeeListResponseCache;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private Path snapshot;
+
+    @BeforeAll
+    void seed() throws Exception {
+        jdbcTemplate.execute("truncate table employees");
+        new EmployeeDataGenerator().insert(dataSource, 0, ROWS, 4);
+        // an aged table whose latest change before the snapshot was ten minutes ago, so only the
+        // churn below falls inside the overlap
+        jdbcTemplate.update("update employees set updated_at = ?", Timestamp.from(Instant.now().minus(1, ChronoUnit.DAYS)));
+        jdbcTemplate.update("update employees set updated_at = ? where id % 1000 = 0",
+                Timestamp.from(Instant.now().minus(10, ChronoUnit.MINUTES)));
+
+        snapshot = Files.createTempDirectory("warm-start").resolve("employees.snapshot");
+        warmStart(new KnownEmailFilter(employeeRepository, transactionTemplate, ROWS, 0.01)).writeSnapshot();
+
+        long firstId = jdbcTemplate.queryForObject("select min(id) from employees", Long.class);
+        jdbcTemplate.update("update employees set last_name = concat(last_name, 'x') where id % 100 = 0");
+        jdbcTemplate.update("delete from employees where id >= ? and id < ?", firstId, firstId + DELETED);
+        new EmployeeDataGenerator().insert(dataSource, ROWS, INSERTED, 1);
+    }
+
+    @DisplayName("Cold start from the table against warm start from a snapshot")
+    @Test
+    void compareColdWithWarm() {
+        long stored = employeeRepository.count();
+
+        // statements are counted for one start, the last sample
+        double[] cold = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            employeeListResponseCache.invalidate();
+            statementCounter.statements.set(0);
+            long start = System.nanoTime();
+            employeeListResponseCache.get();
+            new KnownEmailFilter(employeeRepository, transactionTemplate, ROWS, 0.01).load();
+            cold[i] = (System.nanoTime() - start) / 1e6;
+        }
+        int coldStatements = statementCounter.statements.get();
+
+        double[] warm = new double[SAMPLES];
+        EmployeeWarmStart.Refresh refresh = null;
+        for (int i = 0; i < SAMPLES; i++) {
+            employeeListResponseCache.invalidate();
+            statementCounter.statements.set(0);
+            long start = System.nanoTime();
+            refresh = warmStart(new KnownEmailFilter(employeeRepository, transactionTemplate, ROWS, 0.01))
+                    .warm()
+                    .orElseThrow();
+            warm[i] = (System.nanoTime() - start) / 1e6;
+        }
+        int warmStatements = statementCounter.statements.get();
+
+        assertThat(refresh.snapshot().employees()).hasSize((int) stored);
+        System.out.printf("%-5s %12s %12s %14s%n", "start", "p50 (ms)", "statements", "rows read");
+        System.out.printf("%-5s %12.0f %12d %14d%n", "cold", median(cold), coldStatements, 2 * stored);
+        System.out.printf("%-5s %12.0f %12d %14d%n", "warm", median(warm), warmStatements, refresh.changed() + refresh.idsRead());
+        System.out.printf("warm: %d rows from the snapshot, %d changed, %d ids read, %d deleted%n",
+                refresh.fromSnapshot(), refresh.changed(), refresh.idsRead(), refresh.deleted());
+    }
+
+    private EmployeeWarmStart warmStart(KnownEmailFilter knownEmailFilter) {
+        return new EmployeeWarmStart(employeeRepository, transactionTemplate, employeeListResponseCache,
+                knownEmailFilter, snapshot, Duration.ofMinutes(5), Duration.ofMinutes(1));
+    }
+
+    private static double median(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,43 @@
+package com.javaguides.springboot.bloom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTests {
+
+    @DisplayName("Added keys are always reported as possibly present")
+    @Test
+    void givenAddedKeys_whenMightContain_thenNoFalseNegatives() {
+        // given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        // when
+        IntStream.range(0, 50_000).forEach(i -> filter.add("employee" + i + "@gmail.com"));
+
+        // then
+        assertThat(IntStream.range(0, 50_000).allMatch(i -> filter.mightContain("employee" + i + "@gmail.com"))).isTrue();
+        assertThat(filter.stageCount()).isGreaterThan(1);
+    }
+
+    @DisplayName("False-positive rate stays under the target while the filter grows")
+    @Test
+    void givenGrowingFilter_whenMightContainAbsentKeys_thenFalsePositiveRateBounded() {
+        // given
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        IntStream.range(0, 100_000).forEach(i -> filter.add("employee" + i + "@gmail.com"));
+
+        // when
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("absent" + i + "@gmail.com"))
+                .count();
+
+        // then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.015);
+        assertThat(filter.approximateFalsePositiveRate()).isLessThan(0.01);
+        assertThat(filter.memoryBytes()).isPositive();
+    }
+}
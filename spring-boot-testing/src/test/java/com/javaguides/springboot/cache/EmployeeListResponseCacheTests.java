@@ -0,0 +1,176 @@
+package com.javaguides.springboot.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.javaguides.springboot.event.EmployeeChangedEvent;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import static com.javaguides.springboot.TestUtils.employee1;
+import static com.javaguides.springboot.TestUtils.employee2;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeListResponseCacheTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EmployeeListResponseCache cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null)
+            cache.shutdown();
+    }
+
+    @DisplayName("Hits are served without loading or serializing again")
+    @Test
+    void givenCachedBody_whenGet_thenServiceCalledOnce() throws Exception {
+        // given
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee1, employee2));
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMinutes(1));
+
+        // when
+        EmployeeListResponseCache.CachedBody first = cache.get();
+        EmployeeListResponseCache.CachedBody second = cache.get();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(objectMapper.readTree(first.json()).size()).isEqualTo(2);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(first.json());
+        }
+        verify(employeeService, times(1)).getAllEmployees();
+    }
+
+    @DisplayName("A sparse fieldset gets its own body built from the projection")
+    @Test
+    void givenFields_whenGet_thenProjectionCachedSeparately() throws Exception {
+        // given
+        Set<EmployeeField> fields = Set.of(EmployeeField.ID, EmployeeField.EMAIL);
+        given(employeeService.getAllEmployees(fields))
+                .willReturn(List.of(Map.of("id", 1L, "email", employee1.getEmail())));
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMinutes(1));
+
+        // when
+        EmployeeListResponseCache.CachedBody first = cache.get(fields);
+        EmployeeListResponseCache.CachedBody second = cache.get(Set.of(EmployeeField.EMAIL, EmployeeField.ID));
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(objectMapper.readTree(first.json()).get(0).has("firstName")).isFalse();
+        verify(employeeService, times(1)).getAllEmployees(fields);
+        verify(employeeService, times(0)).getAllEmployees();
+    }
+
+    @DisplayName("A binary variant is transcoded once and dropped with the JSON body")
+    @Test
+    void givenBinaryType_whenGet_thenTranscodedOnceUntilInvalidated() throws Exception {
+        // given
+        given(employeeService.getAllEmployees())
+                .willReturn(List.of(employee1))
+                .willReturn(List.of(employee1, employee2));
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMinutes(1));
+
+        // when
+        byte[] first = cache.get(EmployeeField.ALL, MediaType.APPLICATION_CBOR);
+        byte[] second = cache.get(EmployeeField.ALL, MediaType.APPLICATION_CBOR);
+        cache.invalidate();
+        byte[] third = cache.get(EmployeeField.ALL, MediaType.APPLICATION_CBOR);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(new CBORMapper().readTree(first)).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(List.of(employee1))));
+        assertThat(new CBORMapper().readTree(third).size()).isEqualTo(2);
+        verify(employeeService, times(2)).getAllEmployees();
+    }
+
+    @DisplayName("A change event invalidates the body and rebuilds it in the background")
+    @Test
+    void givenChangeEvent_whenCommitted_thenBodyRebuiltAsynchronously() throws Exception {
+        // given
+        given(employeeService.getAllEmployees())
+                .willReturn(List.of(employee1))
+                .willReturn(List.of(employee1, employee2));
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMinutes(1));
+        cache.get();
+
+        // when
+        cache.onEmployeeChanged(EmployeeChangedEvent.created(employee2));
+
+        // then
+        verify(employeeService, timeout(5000).times(2)).getAllEmployees();
+        assertThat(objectMapper.readTree(cache.get().json()).size()).isEqualTo(2);
+    }
+
+    @DisplayName("A write that published no event here shows up once the body is older than max-age")
+    @Test
+    void givenOutOfBandWrite_whenMaxAgePassed_thenBodyRebuilt() throws Exception {
+        // given
+        given(employeeService.getAllEmployees())
+                .willReturn(List.of(employee1))
+                .willReturn(List.of(employee1, employee2));
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMillis(100));
+        byte[] cbor = cache.get(EmployeeField.ALL, MediaType.APPLICATION_CBOR);
+
+        // when
+        // employee2 is written by another instance, no event reaches this one
+        Thread.sleep(150);
+
+        // then
+        assertThat(objectMapper.readTree(cache.get().json()).size()).isEqualTo(2);
+        assertThat(new CBORMapper().readTree(cache.get(EmployeeField.ALL, MediaType.APPLICATION_CBOR)).size()).isEqualTo(2);
+        assertThat(new CBORMapper().readTree(cbor).size()).isEqualTo(1);
+        verify(employeeService, times(2)).getAllEmployees();
+    }
+
+    @DisplayName("A body loaded before a concurrent change is not installed")
+    @Test
+    void givenChangeDuringRebuild_whenGet_thenStaleBodyNotInstalled() throws Exception {
+        // given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        given(employeeService.getAllEmployees())
+                .willAnswer(invocation -> {
+                    loading.countDown();
+                    changed.await();
+                    return List.<Employee>of(employee1);
+                })
+                .willReturn(List.of(employee1, employee2));
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMinutes(1));
+
+        // when
+        Thread reader = new Thread(cache::get);
+        reader.start();
+        loading.await();
+        cache.invalidate();
+        changed.countDown();
+        reader.join();
+
+        // then
+        assertThat(objectMapper.readTree(cache.get().json()).size()).isEqualTo(2);
+    }
+}
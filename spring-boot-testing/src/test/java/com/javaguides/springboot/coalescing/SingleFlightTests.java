@@ -0,0 +1,101 @@
+package com.javaguides.springboot.coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("A leader failure is rethrown to every follower")
+    @Test
+    void givenFailingLeader_whenFollowersWait_thenAllReceiveFailure() throws Exception {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5), UnaryOperator.identity());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            loading.countDown();
+            await(fail);
+            throw new IllegalStateException("database down");
+        }));
+        loading.await();
+
+        // when
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "not called"));
+        while (singleFlight.getFollowers() == 0)
+            Thread.sleep(1);
+        fail.countDown();
+
+        // then
+        assertThatThrownBy(leader::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(follower::get).hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("database down");
+        assertThat(singleFlight.getLeaders()).isEqualTo(1);
+    }
+
+    @DisplayName("A follower that waits past the timeout loads on its own")
+    @Test
+    void givenSlowLeader_whenFollowerTimesOut_thenFollowerLoadsItself() throws Exception {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofMillis(50), UnaryOperator.identity());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> singleFlight.execute("key", () -> {
+            loading.countDown();
+            await(release);
+            return "leader";
+        }));
+        loading.await();
+
+        // when
+        String result = singleFlight.execute("key", () -> "own");
+
+        // then
+        assertThat(result).isEqualTo("own");
+        assertThat(singleFlight.getTimeouts()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @DisplayName("The key is forgotten once the leader finishes")
+    @Test
+    void givenFinishedCall_whenCalledAgain_thenLoadsAgain() {
+        // given
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(Duration.ofSeconds(1), UnaryOperator.identity());
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        singleFlight.execute("key", loads::incrementAndGet);
+        int second = singleFlight.execute("key", loads::incrementAndGet);
+
+        // then
+        assertThat(second).isEqualTo(2);
+        assertThat(singleFlight.coalescingRatio()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
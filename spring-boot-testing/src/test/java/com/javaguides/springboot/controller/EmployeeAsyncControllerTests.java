@@ -0,0 +1,99 @@
+package com.javaguides.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.async.DatabaseExecutor;
+import com.javaguides.springboot.idempotency.IdempotencyStore;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.service.EmployeeService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+
+import static com.javaguides.springboot.TestUtils.employee1;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeAsyncController.class)
+@Import({IdempotencyStore.class, DatabaseExecutor.class})
+class EmployeeAsyncControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DisplayName("Async Create Employee Operation")
+    @Test
+    void givenEmployeeObject_whenCreateEmployeeAsync_thenReturnSavedEmployee() throws Exception {
+        // given
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when
+        MvcResult started = mockMvc.perform(post("/api/employees/async/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isCreated())
+                .andDo(print())
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee1.getEmail())));
+    }
+
+    @DisplayName("Async GetById Employee Operation")
+    @Test
+    void givenEmployeeId_whenGetByIdAsync_thenReturnEmployeeObject() throws Exception {
+        // given
+        given(employeeService.getEmployeeById(employee1.getId())).willReturn(Optional.of(employee1));
+
+        // when
+        MvcResult started = mockMvc.perform(get("/api/employees/async/getById/{id}", employee1.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.firstName", CoreMatchers.is(employee1.getFirstName())));
+    }
+
+    @DisplayName("Async GetById Employee Operation - Not Found")
+    @Test
+    void givenInvalidEmployeeId_whenGetByIdAsync_thenReturnNotFound() throws Exception {
+        // given
+        given(employeeService.getEmployeeById(3L)).willReturn(Optional.empty());
+
+        // when
+        MvcResult started = mockMvc.perform(get("/api/employees/async/getById/{id}", 3L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,33 +1,54 @@
 package com.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.exception.DuplicateEmployeeException;
+import com.javaguides.springboot.feed.EmployeeChangeFeed;
+import com.javaguides.springboot.idempotency.IdempotencyStore;
 import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.model.EmployeeUpsertResult;
 import com.javaguides.springboot.service.EmployeeService;
+import com.javaguides.springboot.timing.ServerTimingFilter;
 import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.javaguides.springboot.TestUtils.employee1;
 import static com.javaguides.springboot.TestUtils.employee2;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest // Context that contains only the necessary beans for testing
+@WebMvcTest(EmployeeController.class) // Context that contains only the necessary beans for testing
+@Import({IdempotencyStore.class, EmployeeChangeFeed.class, EmployeeListResponseCache.class})
 class EmployeeControllerTests {
 
     @Autowired
@@ -39,6 +60,14 @@ class EmployeeControllerTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeListResponseCache employeeListResponseCache;
+
+    @BeforeEach
+    void setUp(){
+        // the pre-serialized list outlives a single test, drop it so each test sees its own stubbing
+        employeeListResponseCache.invalidate();
+    }
 
     @DisplayName("Create Employee Operation")
     @Test
@@ -66,6 +95,98 @@ class EmployeeControllerTests {
 
     }
 
+    @DisplayName("Create Employee Operation in CBOR")
+    @Test
+    void givenCborEmployee_whenCreateEmployee_thenReturnSavedEmployeeInCbor() throws Exception {
+        // given (stubbing)
+        ObjectMapper cborMapper = new CBORMapper();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/employees/create")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(employee1)));
+
+        // then
+        result.andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE));
+        Employee saved = cborMapper.readValue(result.andReturn().getResponse().getContentAsByteArray(), Employee.class);
+        assertThat(saved.getEmail()).isEqualTo(employee1.getEmail());
+    }
+
+    @DisplayName("Create Employee Operation with an existing email")
+    @Test
+    void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        // given (stubbing)
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new DuplicateEmployeeException(employee1.getEmail()));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/employees/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee1)));
+
+        // then
+        result.andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", CoreMatchers.is(409)))
+                .andExpect(jsonPath("$.error", CoreMatchers.is("EMPLOYEE_EXISTS")))
+                .andDo(print());
+    }
+
+    @DisplayName("Create Employee Operation replayed with the same Idempotency-Key")
+    @Test
+    void givenRepeatedIdempotencyKey_whenCreateEmployee_thenServiceIsCalledOnce() throws Exception {
+        // given (stubbing)
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when
+        var postContent = MockMvcRequestBuilders
+                .post("/api/employees/create")
+                .header(IdempotencyStore.HEADER, "create-employee1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee1));
+
+        ResultActions first = mockMvc.perform(postContent);
+        ResultActions retry = mockMvc.perform(postContent);
+
+        // then
+        first.andExpect(status().isCreated());
+        retry.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee1.getEmail())))
+                .andDo(print());
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @DisplayName("Create Employee Operation with an idempotency key reused for another body")
+    @Test
+    void givenKeyReusedForAnotherEmployee_whenCreateEmployee_thenReturnUnprocessableEntity() throws Exception {
+        // given (stubbing)
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/employees/create")
+                .header(IdempotencyStore.HEADER, "create-reused")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee1)));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/employees/create")
+                .header(IdempotencyStore.HEADER, "create-reused")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee2)));
+
+        // then
+        result.andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error", CoreMatchers.is("IDEMPOTENCY_KEY_REUSED")));
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
     @DisplayName("GetAll Employees Operation")
     @Test
     void givenListOfEmployees_whenGetAllEmployees_thenReturnsEmployeesList() throws Exception {
@@ -83,6 +204,138 @@ class EmployeeControllerTests {
                 .andExpect(jsonPath("$.size()", CoreMatchers.is(employeeList.size())));
     }
 
+    @DisplayName("GetAll Employees Operation served from the cache with gzip")
+    @Test
+    void givenCachedEmployeesList_whenGetAllEmployeesWithGzip_thenServiceIsCalledOnce() throws Exception {
+        // given (stubbing)
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee1, employee2));
+
+        // when
+        ResultActions first = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll"));
+        ResultActions second = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        // then
+        first.andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.CONTENT_LENGTH));
+        second.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        verify(employeeService, times(1)).getAllEmployees();
+    }
+
+    @DisplayName("GetAll Employees Operation honours gzip;q=0 as a refusal")
+    @Test
+    void givenGzipRefused_whenGetAllEmployees_thenReturnPlainJson() throws Exception {
+        // given (stubbing)
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee1, employee2));
+
+        // when
+        ResultActions refused = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"));
+        ResultActions wildcard = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"));
+        ResultActions wildcardRefused = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT_ENCODING, "*;q=0.5, GZIP; Q=0.0"));
+
+        // then
+        refused.andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(2)));
+        wildcard.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        wildcardRefused.andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @DisplayName("GetAll Employees Operation in Smile, JSON stays the default")
+    @Test
+    void givenAcceptSmile_whenGetAllEmployees_thenReturnSmileFromTheCache() throws Exception {
+        // given (stubbing)
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee1, employee2));
+
+        // when
+        ResultActions json = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT, "*/*"));
+        ResultActions smile = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile"));
+
+        // then
+        json.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE));
+        smile.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"));
+        JsonNode employees = new SmileMapper().readTree(smile.andReturn().getResponse().getContentAsByteArray());
+        assertThat(employees.size()).isEqualTo(2);
+        assertThat(employees.get(0).get("email").asText()).isEqualTo(employee1.getEmail());
+        verify(employeeService, times(1)).getAllEmployees();
+    }
+
+    @DisplayName("GetAll Employees Operation - Negative Scenario - no acceptable list format")
+    @Test
+    void givenAcceptNamingNoListFormat_whenGetAllEmployees_thenReturnNotAcceptable() throws Exception {
+        // given
+        // when
+        ResultActions csv = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT, "text/csv"));
+        ResultActions refused = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT, "text/csv, application/json;q=0"));
+        ResultActions malformed = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .header(HttpHeaders.ACCEPT, "application/json;q=high"));
+
+        // then
+        csv.andExpect(status().isNotAcceptable());
+        refused.andExpect(status().isNotAcceptable());
+        malformed.andExpect(status().isNotAcceptable());
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @DisplayName("GetAll Employees Operation with a sparse fieldset")
+    @Test
+    void givenFields_whenGetAllEmployees_thenReturnOnlyThoseFields() throws Exception {
+        // given (stubbing)
+        given(employeeService.getAllEmployees(Set.of(EmployeeField.ID, EmployeeField.EMAIL)))
+                .willReturn(List.of(Map.of("id", 1L, "email", employee1.getEmail())));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll")
+                .param("fields", "email,id"));
+
+        // then
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", CoreMatchers.is(employee1.getEmail())))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist());
+        verify(employeeService, times(0)).getAllEmployees();
+    }
+
+    @DisplayName("GetById Employee Operation with a sparse fieldset")
+    @Test
+    void givenFields_whenGetById_thenReturnOnlyThoseFields() throws Exception {
+        // given (stubbing)
+        given(employeeService.getEmployeeById(1, Set.of(EmployeeField.EMAIL)))
+                .willReturn(Optional.of(Map.of("email", employee1.getEmail())));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getById/{id}", 1)
+                .param("fields", "email"));
+
+        // then
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee1.getEmail())))
+                .andExpect(jsonPath("$.id").doesNotExist());
+    }
+
+    @DisplayName("GetById Employee Operation with an unknown field")
+    @Test
+    void givenUnknownField_whenGetById_thenReturnBadRequest() throws Exception {
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getById/{id}", 1)
+                .param("fields", "id,salary"));
+
+        // then
+        result.andExpect(status().isBadRequest());
+    }
+
     @DisplayName("Positive Scenario - GetById Employee Operation")
     @Test
     void givenEmployeeId_whenGetById_thenReturnEmployeeObject() throws Exception {
@@ -101,6 +354,24 @@ class EmployeeControllerTests {
 
     }
 
+    @DisplayName("GetById Employee Operation with a Server-Timing breakdown")
+    @Test
+    void givenDebugTimingHeader_whenGetById_thenReturnServerTimingHeader() throws Exception {
+        // given (stubbing)
+        given(employeeService.getEmployeeById(1)).willReturn(Optional.ofNullable(employee1));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getById/{id}", 1)
+                .header(ServerTimingFilter.DEBUG_HEADER, "true"));
+
+        // then
+        result.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER, CoreMatchers.containsString("service;dur=")))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING_HEADER, CoreMatchers.containsString("serialization;dur=")))
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee1.getEmail())));
+    }
+
     @DisplayName("Negative Scenario - GetById Employee Operation")
     @Test
     void givenInvalidEmployeeId_whenGetById_thenReturnEmployeeObject() throws Exception {
@@ -115,6 +386,29 @@ class EmployeeControllerTests {
         result.andExpect(status().is4xxClientError()).andDo(print());
     }
 
+    @DisplayName("GetByIds Employee Operation")
+    @Test
+    void givenEmployeeIds_whenGetByIds_thenReturnLookupsInRequestOrder() throws Exception {
+        // given (stubbing)
+        given(employeeService.getEmployeesByIds(List.of(2L, 3L, 1L)))
+                .willReturn(List.of(Optional.of(employee2), Optional.empty(), Optional.of(employee1)));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/employees/getByIds")
+                .param("ids", "2", "3", "1"));
+
+        // then
+        result.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$[0].found", CoreMatchers.is(true)))
+                .andExpect(jsonPath("$[0].employee.email", CoreMatchers.is(employee2.getEmail())))
+                .andExpect(jsonPath("$[1].id", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$[1].found", CoreMatchers.is(false)))
+                .andExpect(jsonPath("$[2].employee.email", CoreMatchers.is(employee1.getEmail())));
+    }
+
     @DisplayName("Positive Scenario - Update Employee Operation")
     @Test
     void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() throws Exception {
@@ -139,6 +433,29 @@ class EmployeeControllerTests {
                 .andExpect(jsonPath("$.lastName", CoreMatchers.is(employee2.getLastName())));
     }
 
+    @DisplayName("Update Employee Operation to an email another employee has")
+    @Test
+    void givenExistingEmail_whenUpdateEmployee_thenReturnConflict() throws Exception {
+        var employeeId = 1;
+        // given (stubbing)
+        // a copy, the controller writes the request body into the stored employee
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee1.toBuilder().build()));
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willThrow(new DuplicateEmployeeException(employee2.getEmail()));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .put("/api/employees/update/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee2)));
+
+        // then
+        result.andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", CoreMatchers.is(409)))
+                .andExpect(jsonPath("$.error", CoreMatchers.is("EMPLOYEE_EXISTS")))
+                .andDo(print());
+    }
+
     @DisplayName("Negative Scenario - Update Employee Operation")
     @Test
     void givenEmptyEmployeeObject_whenUpdateEmployee_thenReturnNotFoundStatusCode() throws Exception {
@@ -162,6 +479,43 @@ class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    @DisplayName("Upsert Employees Operation")
+    @Test
+    void givenRoster_whenUpsert_thenReturnCounts() throws Exception {
+        // given
+        given(employeeService.upsertEmployees(any()))
+                .willReturn(new EmployeeUpsertResult(1, 0, 1));
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/employees/upsert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee1, employee2))));
+
+        // then
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.updated", CoreMatchers.is(0)))
+                .andExpect(jsonPath("$.unchanged", CoreMatchers.is(1)));
+    }
+
+    @DisplayName("Upsert Employees Operation without an email")
+    @Test
+    void givenRowWithoutEmail_whenUpsert_thenReturnBadRequest() throws Exception {
+        // given
+        Employee withoutEmail = employee1.toBuilder().email(null).build();
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/employees/upsert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(withoutEmail))));
+
+        // then
+        result.andExpect(status().isBadRequest());
+        verify(employeeService, times(0)).upsertEmployees(any());
+    }
+
     @DisplayName("Delete Employee Operation")
     @Test
     void givenAValidEmployeeId_whenDeletedEmployee_thenReturn2xx() throws Exception {
@@ -0,0 +1,209 @@
+package com.javaguides.springboot.data;
+
+import com.javaguides.springboot.model.Employee;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic synthetic {@link Employee} data for scale tests and benchmarks.
+ * <p>
+ * Row {@code i} depends only on the seed and {@code i}, so a test can look up any generated row
+ * without keeping them, and loads can be split into ranges and run in parallel. First names, last
+ * names and email domains are drawn from fixed pools with a Zipf skew (exponent 0 is uniform, 1 is
+ * the classic long tail of real name data). Emails embed the row index and are therefore unique.
+ * <p>
+ * {@link #insert(DataSource, long, long, int)} writes with multi-row {@code INSERT}s on several
+ * connections; {@code employeeRepository.save} would be orders of magnitude slower at millions of rows.
+ */
+public class EmployeeDataGenerator {
+
+    public static final long DEFAULT_SEED = 42;
+
+    static final int FIRST_NAMES = 2_000;
+    static final int LAST_NAMES = 10_000;
+    static final int DOMAINS = 200;
+
+    // 3 parameters per row keeps a statement far below MySQL's 65,535 placeholder limit
+    private static final int ROWS_PER_STATEMENT = 1_000;
+    private static final int STATEMENTS_PER_COMMIT = 10;
+
+    private static final String[] SYLLABLES = {
+            "ka", "ren", "mi", "lo", "sa", "tor", "el", "an", "da", "vi", "ro", "na", "jo", "li", "ma", "ber",
+            "ta", "son", "ri", "co", "le", "us", "ha", "nel", "de", "ga", "il", "or", "be", "tin", "ve", "ly"};
+
+    private final long seed;
+    private final double[] firstNameCdf;
+    private final double[] lastNameCdf;
+    private final double[] domainCdf;
+
+    public EmployeeDataGenerator() {
+        this(DEFAULT_SEED, 1.0, 1.2);
+    }
+
+    /**
+     * @param nameSkew   Zipf exponent of first and last names
+     * @param domainSkew Zipf exponent of email domains
+     */
+    public EmployeeDataGenerator(long seed, double nameSkew, double domainSkew) {
+        this.seed = seed;
+        this.firstNameCdf = zipfCdf(FIRST_NAMES, nameSkew);
+        this.lastNameCdf = zipfCdf(LAST_NAMES, nameSkew);
+        this.domainCdf = zipfCdf(DOMAINS, domainSkew);
+    }
+
+    /**
+     * The employee generated for row {@code index}, without an id.
+     */
+    public Employee employee(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed ^ mix(index)));
+        int first = sample(firstNameCdf, random.nextDouble());
+        int last = sample(lastNameCdf, random.nextDouble());
+        int domain = sample(domainCdf, random.nextDouble());
+
+        String firstName = name(first, 0x5f);
+        String lastName = name(last, 0x3c1);
+        String email = (firstName + '.' + lastName + '.' + index + '@' + name(domain, 0xd0) + ".example")
+                .toLowerCase(Locale.ROOT);
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+
+    public Stream<Employee> employees(long fromIndex, long count) {
+        return LongStream.range(fromIndex, fromIndex + count).mapToObj(this::employee);
+    }
+
+    /**
+     * Inserts rows {@code [fromIndex, fromIndex + count)} into {@code employees}, split into
+     * {@code threads} contiguous ranges loaded on their own connection. Appending a later range
+     * grows an existing table without duplicating emails.
+     */
+    public void insert(DataSource dataSource, long fromIndex, long count, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> loads = new ArrayList<>(threads);
+            long perThread = (count + threads - 1) / threads;
+            for (long from = fromIndex; from < fromIndex + count; from += perThread) {
+                long start = from;
+                long end = Math.min(from + perThread, fromIndex + count);
+                loads.add(executor.submit(() -> {
+                    insertRange(dataSource, start, end);
+                    return null;
+                }));
+            }
+            for (Future<?> load : loads)
+                load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating employees", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not generate employees", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertRange(DataSource dataSource, long from, long to) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            int pending = 0;
+            try (PreparedStatement full = connection.prepareStatement(insertSql(ROWS_PER_STATEMENT))) {
+                long index = from;
+                for (; index + ROWS_PER_STATEMENT <= to; index += ROWS_PER_STATEMENT) {
+                    bind(full, index, ROWS_PER_STATEMENT);
+                    full.executeUpdate();
+                    if (++pending == STATEMENTS_PER_COMMIT) {
+                        connection.commit();
+                        pending = 0;
+                    }
+                }
+                if (index < to) {
+                    try (PreparedStatement tail = connection.prepareStatement(insertSql((int) (to - index)))) {
+                        bind(tail, index, (int) (to - index));
+                        tail.executeUpdate();
+                    }
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    private void bind(PreparedStatement statement, long fromIndex, int rows) throws SQLException {
+        int parameter = 1;
+        for (int row = 0; row < rows; row++) {
+            Employee employee = employee(fromIndex + row);
+            statement.setString(parameter++, employee.getFirstName());
+            statement.setString(parameter++, employee.getLastName());
+            statement.setString(parameter++, employee.getEmail());
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("insert into employees (first_name, last_name, email) values ");
+        for (int row = 0; row < rows; row++)
+            sql.append(row == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        return sql.toString();
+    }
+
+    /**
+     * Pronounceable, capitalized name for pool entry {@code rank}. {@code salt} keeps the first
+     * name, last name and domain pools from spelling the same words.
+     */
+    static String name(int rank, int salt) {
+        int value = rank * 31 + salt;
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append(SYLLABLES[value % SYLLABLES.length]);
+            value /= SYLLABLES.length;
+        } while (value > 0 || name.length() < 4);
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static double[] zipfCdf(int size, double exponent) {
+        double[] cdf = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++)
+            cdf[rank] /= total;
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double uniform) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cdf[middle] < uniform)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    // SplitMix64 finalizer, spreads neighbouring indexes over unrelated random streams
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,67 @@
+package com.javaguides.springboot.data;
+
+import com.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeDataGeneratorTests {
+
+    @DisplayName("The same seed generates the same rows, another seed different ones")
+    @Test
+    void givenSeed_whenEmployee_thenDeterministic() {
+        // given
+        EmployeeDataGenerator generator = new EmployeeDataGenerator(7, 1.0, 1.2);
+        EmployeeDataGenerator sameSeed = new EmployeeDataGenerator(7, 1.0, 1.2);
+        EmployeeDataGenerator otherSeed = new EmployeeDataGenerator(8, 1.0, 1.2);
+
+        // when
+        Employee employee = generator.employee(123_456);
+
+        // then
+        assertThat(sameSeed.employee(123_456)).usingRecursiveComparison().isEqualTo(employee);
+        assertThat(otherSeed.employee(123_456).getEmail()).isNotEqualTo(employee.getEmail());
+    }
+
+    @DisplayName("Every generated email is unique")
+    @Test
+    void givenManyRows_whenEmployees_thenEmailsUnique() {
+        // given
+        EmployeeDataGenerator generator = new EmployeeDataGenerator();
+        Set<String> emails = new HashSet<>();
+
+        // when
+        generator.employees(0, 200_000).forEach(employee -> emails.add(employee.getEmail()));
+
+        // then
+        assertThat(emails).hasSize(200_000);
+    }
+
+    @DisplayName("A higher name skew concentrates rows on the most common names")
+    @Test
+    void givenSkew_whenEmployees_thenCommonNamesDominate() {
+        // given
+        int rows = 100_000;
+
+        // when
+        long uniformTop = topFirstNameCount(new EmployeeDataGenerator(1, 0.0, 0.0), rows);
+        long skewedTop = topFirstNameCount(new EmployeeDataGenerator(1, 1.0, 0.0), rows);
+
+        // then
+        // uniform: about rows / FIRST_NAMES per name, Zipf(1): about rows / H(2000) ~ 12% for the first
+        assertThat(uniformTop).isLessThan(rows / EmployeeDataGenerator.FIRST_NAMES * 2);
+        assertThat(skewedTop).isGreaterThan(rows / 10);
+    }
+
+    private static long topFirstNameCount(EmployeeDataGenerator generator, int rows) {
+        Map<String, Long> counts = generator.employees(0, rows)
+                .collect(Collectors.groupingBy(Employee::getFirstName, Collectors.counting()));
+        return counts.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+    }
+}
@@ -0,0 +1,70 @@
+package com.javaguides.springboot.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how long {@link EmployeeChangeFeed} takes to fan a burst of changes out to many
+ * concurrent subscribers, each with a small simulated per-event write cost.
+ * <p>
+ * Not part of the regular suite, run with {@code mvn test -Dtest=ChangeFeedFanOutBenchmark}.
+ */
+class ChangeFeedFanOutBenchmark {
+
+    private static final int EVENTS = 1_000;
+    private static final long WRITE_COST_NANOS = 2_000;
+
+    @DisplayName("Fan-out of a burst of changes to many subscribers")
+    @ParameterizedTest(name = "{0} subscribers")
+    @ValueSource(ints = {100, 1_000, 5_000})
+    void fanOut(int subscriberCount) throws InterruptedException {
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(new ObjectMapper(), 1024, EVENTS, 8, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        CountDownLatch done = new CountDownLatch(subscriberCount);
+        LongAdder delivered = new LongAdder();
+        for (int i = 0; i < subscriberCount; i++)
+            feed.subscribe(null, new CountingSink(delivered, done));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++)
+            feed.publish("UPDATED", "{\"id\":" + i + "}");
+        long published = System.nanoTime();
+        boolean completed = done.await(2, TimeUnit.MINUTES);
+        long finished = System.nanoTime();
+        feed.shutdown();
+
+        double publishMillis = (published - start) / 1e6;
+        double totalMillis = (finished - start) / 1e6;
+        System.out.printf("subscribers=%d events=%d publish=%.1fms delivered=%d total=%.1fms throughput=%.0f events/s%n",
+                subscriberCount, EVENTS, publishMillis, delivered.sum(), totalMillis,
+                delivered.sum() / (totalMillis / 1000));
+
+        assertThat(completed).isTrue();
+        assertThat(delivered.sum()).isEqualTo((long) subscriberCount * EVENTS);
+    }
+
+    private record CountingSink(LongAdder delivered, CountDownLatch done) implements EmployeeChangeFeed.Sink {
+
+        @Override
+        public void send(EmployeeChangeFeed.FeedEvent event) {
+            long until = System.nanoTime() + WRITE_COST_NANOS;
+            while (System.nanoTime() < until)
+                Thread.onSpinWait();
+            delivered.increment();
+            if (event.id() == EVENTS)
+                done.countDown();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.javaguides.springboot.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.event.EmployeeChangedEvent;
+import com.javaguides.springboot.event.EmployeesUpsertedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.javaguides.springboot.TestUtils.employee1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeChangeFeedTests {
+
+    private final EmployeeChangeFeed feed = new EmployeeChangeFeed(new ObjectMapper(), 8, 4, 2, Duration.ofMinutes(1), Duration.ofMillis(200));
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @DisplayName("Committed changes are delivered to subscribers in order")
+    @Test
+    void givenSubscriber_whenEmployeeChanged_thenEventsDelivered() throws Exception {
+        // given
+        RecordingSink sink = new RecordingSink(3);
+        feed.subscribe(null, sink);
+
+        // when
+        feed.onEmployeeChanged(EmployeeChangedEvent.created(employee1));
+        feed.onEmployeeChanged(EmployeeChangedEvent.updated(employee1));
+        feed.onEmployeeChanged(EmployeeChangedEvent.deleted(employee1.getId()));
+
+        // then
+        assertThat(sink.await()).isTrue();
+        assertThat(sink.names()).containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(sink.events.get(0).data()).contains(employee1.getEmail());
+    }
+
+    @DisplayName("Reconnecting with Last-Event-ID replays only the missed events")
+    @Test
+    void givenLastEventId_whenSubscribe_thenMissedEventsReplayed() throws Exception {
+        // given
+        for (int i = 0; i < 5; i++)
+            feed.publish("UPDATED", "{}");
+        RecordingSink sink = new RecordingSink(3);
+
+        // when
+        feed.subscribe(2L, sink);
+
+        // then
+        assertThat(sink.await()).isTrue();
+        assertThat(sink.events).extracting(EmployeeChangeFeed.FeedEvent::id).containsExactly(3L, 4L, 5L);
+    }
+
+    @DisplayName("Reconnecting after the ring buffer wrapped asks the client to reload")
+    @Test
+    void givenEvictedLastEventId_whenSubscribe_thenResetSent() throws Exception {
+        // given
+        for (int i = 0; i < 20; i++)
+            feed.publish("UPDATED", "{}");
+        RecordingSink sink = new RecordingSink(1);
+
+        // when
+        feed.subscribe(1L, sink);
+
+        // then
+        assertThat(sink.await()).isTrue();
+        assertThat(sink.names()).containsExactly(EmployeeChangeFeed.RESET_EVENT);
+    }
+
+    @DisplayName("Reconnecting with an id from before a restart asks the client to reload")
+    @Test
+    void givenLastEventIdAheadOfFeed_whenSubscribe_thenResetSent() throws Exception {
+        // given
+        // the client saw event 57 before a restart, this run has only reached 2
+        feed.publish("UPDATED", "{}");
+        feed.publish("UPDATED", "{}");
+        RecordingSink sink = new RecordingSink(2);
+
+        // when
+        feed.subscribe(57L, sink);
+        feed.publish("CREATED", "{}");
+
+        // then
+        assertThat(sink.await()).isTrue();
+        assertThat(sink.names()).containsExactly(EmployeeChangeFeed.RESET_EVENT, "CREATED");
+        assertThat(sink.events.get(0).id()).isEqualTo(2L);
+    }
+
+    @DisplayName("A bulk upsert reaches subscribers as one RESET carrying its counts")
+    @Test
+    void givenSubscriber_whenEmployeesUpserted_thenSingleResetDelivered() throws Exception {
+        // given
+        RecordingSink sink = new RecordingSink(1);
+        EmployeeChangeFeed.Subscriber subscriber = feed.subscribe(null, sink);
+
+        // when
+        feed.onEmployeesUpserted(new EmployeesUpsertedEvent(600, 400));
+
+        // then
+        assertThat(sink.await()).isTrue();
+        assertThat(sink.names()).containsExactly(EmployeeChangeFeed.RESET_EVENT);
+        assertThat(sink.events.get(0).data()).isEqualTo("{\"inserted\":600,\"updated\":400}");
+        assertThat(subscriber.isClosed()).isFalse();
+    }
+
+    @DisplayName("A subscriber that cannot keep up is dropped")
+    @Test
+    void givenBlockedSubscriber_whenBufferOverflows_thenSubscriberDropped() {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        EmployeeChangeFeed.Subscriber slow = feed.subscribe(null, new RecordingSink(0) {
+            @Override
+            public void send(EmployeeChangeFeed.FeedEvent event) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        // when
+        for (int i = 0; i < 10; i++)
+            feed.publish("UPDATED", "{}");
+        release.countDown();
+
+        // then
+        assertThat(slow.isClosed()).isTrue();
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    @DisplayName("Clients that stop reading do not hold up delivery to the others")
+    @Test
+    void givenStalledSubscribers_whenPublished_thenOthersStillReceiveAndStalledAreClosed() throws Exception {
+        // given
+        // more stalled clients than delivery threads, each write blocks until the test ends
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stalledClosed = new CountDownLatch(3);
+        List<EmployeeChangeFeed.Subscriber> stalled = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            stalled.add(feed.subscribe(null, new RecordingSink(0) {
+                @Override
+                public void send(EmployeeChangeFeed.FeedEvent event) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void close() {
+                    stalledClosed.countDown();
+                }
+            }));
+        RecordingSink reading = new RecordingSink(3);
+        feed.subscribe(null, reading);
+
+        try {
+            // when
+            feed.publish("CREATED", "{}");
+            feed.publish("UPDATED", "{}");
+            feed.publish("DELETED", "{}");
+
+            // then
+            assertThat(reading.await()).isTrue();
+            assertThat(reading.names()).containsExactly("CREATED", "UPDATED", "DELETED");
+            assertThat(stalledClosed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(stalled).allMatch(EmployeeChangeFeed.Subscriber::isClosed);
+            assertThat(feed.getSubscriberCount()).isOne();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    static class RecordingSink implements EmployeeChangeFeed.Sink {
+
+        final List<EmployeeChangeFeed.FeedEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+
+        RecordingSink(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(EmployeeChangeFeed.FeedEvent event) throws IOException {
+            events.add(event);
+            received.countDown();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        boolean await() throws InterruptedException {
+            return received.await(5, TimeUnit.SECONDS);
+        }
+
+        List<String> names() {
+            return events.stream().map(EmployeeChangeFeed.FeedEvent::name).toList();
+        }
+    }
+}
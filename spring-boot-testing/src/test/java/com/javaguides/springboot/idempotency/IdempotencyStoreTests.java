@@ -0,0 +1,168 @@
+package com.javaguides.springboot.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DisplayName("Repeated key replays the stored response")
+    @Test
+    void givenRepeatedKey_whenExecute_thenActionRunsOnce() {
+        // given
+        IdempotencyStore store = new IdempotencyStore(objectMapper, Duration.ofMinutes(1), 100, 4);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        ResponseEntity<Integer> first = store.execute("POST create", "key", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        ResponseEntity<Integer> second = store.execute("POST create", "key", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // then
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+    }
+
+    @DisplayName("A key reused for another body or operation is rejected")
+    @Test
+    void givenKeyReusedForDifferentRequest_whenExecute_thenRejected() {
+        // given
+        IdempotencyStore store = new IdempotencyStore(objectMapper, Duration.ofMinutes(1), 100, 4);
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("POST create", "key", Map.of("email", "john@gmail.com"), () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        // when / then
+        assertThatThrownBy(() -> store.execute("POST create", "key", Map.of("email", "jane@gmail.com"),
+                () -> ResponseEntity.ok(calls.incrementAndGet())))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThatThrownBy(() -> store.execute("PUT update/1", "key", Map.of("email", "john@gmail.com"),
+                () -> ResponseEntity.ok(calls.incrementAndGet())))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @DisplayName("Missing key and failed responses are never stored")
+    @Test
+    void givenNoKeyOrFailedResponse_whenExecute_thenActionRunsEveryTime() {
+        // given
+        IdempotencyStore store = new IdempotencyStore(objectMapper, Duration.ofMinutes(1), 100, 4);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        store.execute("POST create", null, "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        store.execute("POST create", null, "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        store.execute("PUT update/1", "key", "body", () -> new ResponseEntity<>(calls.incrementAndGet(), HttpStatus.NOT_FOUND));
+        store.execute("PUT update/1", "key", "body", () -> new ResponseEntity<>(calls.incrementAndGet(), HttpStatus.NOT_FOUND));
+
+        // then
+        assertThat(calls.get()).isEqualTo(4);
+        assertThat(store.size()).isZero();
+    }
+
+    @DisplayName("Entries are evicted after the TTL and beyond the capacity")
+    @Test
+    void givenExpiredOrOverflowingEntries_whenExecute_thenEntriesAreEvicted() throws InterruptedException {
+        // given
+        IdempotencyStore shortLived = new IdempotencyStore(objectMapper, Duration.ofMillis(10), 100, 1);
+        IdempotencyStore bounded = new IdempotencyStore(objectMapper, Duration.ofMinutes(1), 10, 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        shortLived.execute("POST create", "key", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        Thread.sleep(20);
+        shortLived.execute("POST create", "key", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        for (int i = 0; i < 50; i++)
+            bounded.execute("POST create", "key" + i, "body", () -> ResponseEntity.ok(0));
+
+        // then
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(bounded.size()).isEqualTo(10);
+    }
+
+    @DisplayName("Concurrent duplicates wait for the first result")
+    @Test
+    void givenConcurrentDuplicates_whenExecute_thenActionRunsOnce() throws Exception {
+        // given
+        IdempotencyStore store = new IdempotencyStore(objectMapper, Duration.ofMinutes(1), 100, 4);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<ResponseEntity<Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            results.add(executor.submit(() -> {
+                start.await();
+                return store.execute("POST create", "key", "body", () -> {
+                    sleep(50);
+                    return ResponseEntity.ok(calls.incrementAndGet());
+                });
+            }));
+        start.countDown();
+
+        // then
+        for (Future<ResponseEntity<Integer>> result : results)
+            assertThat(result.get().getBody()).isEqualTo(1);
+        assertThat(calls.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @DisplayName("A running request does not hold up other keys on its stripe")
+    @Test
+    void givenRunningRequest_whenOtherKeyExecutes_thenItDoesNotWait() throws Exception {
+        // given
+        IdempotencyStore store = new IdempotencyStore(objectMapper, Duration.ofMinutes(1), 100, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<ResponseEntity<Integer>> first = executor.submit(() -> store.execute("POST create", "first", "body", () -> {
+            running.countDown();
+            await(release);
+            return ResponseEntity.ok(1);
+        }));
+        running.await();
+
+        // when
+        ResponseEntity<Integer> other = store.execute("POST create", "other", "body", () -> ResponseEntity.ok(2));
+
+        // then
+        assertThat(other.getBody()).isEqualTo(2);
+        assertThat(first.isDone()).isFalse();
+        release.countDown();
+        assertThat(first.get().getBody()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
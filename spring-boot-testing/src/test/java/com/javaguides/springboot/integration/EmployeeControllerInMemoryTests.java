@@ -0,0 +1,8 @@
+package com.javaguides.springboot.integration;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// same scenarios without a container, part of the regular suite
+@ActiveProfiles("in-memory")
+class EmployeeControllerInMemoryTests extends EmployeeControllerScenarios {
+}
@@ -0,0 +1,287 @@
+package com.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.integration.sql.AutoConfigureSqlBudgets;
+import com.javaguides.springboot.integration.sql.SqlBudget;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.javaguides.springboot.TestUtils.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The controller scenarios against the full application context. {@link EmployeeControllerIT}
+ * runs them on MySQL, {@link EmployeeControllerInMemoryTests} on the in-memory repository.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureSqlBudgets
+public abstract class EmployeeControllerScenarios {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeListResponseCache employeeListResponseCache;
+
+
+    @BeforeEach
+    void setUp(){
+        employeeRepository.deleteAll();
+        // rows below are written straight through the repository, which publishes no change events
+        employeeListResponseCache.invalidate();
+    }
+
+    @DisplayName("Integration Test - Create employee operation")
+    @Test
+    // findByEmail (skipped once the email filter has loaded) + insert
+    @SqlBudget(select = 1, insert = 1)
+    void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() throws Exception {
+        // given
+        // when
+        ResultActions resultActions = mockMvc.perform(post("/api/employees/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee1)));
+
+        // then
+        resultActions.andExpect(status().isCreated())
+                .andDo(print())
+                .andExpect(jsonPath("$.firstName", is(employee1.getFirstName())))
+                .andExpect(jsonPath("$.lastName", is(employee1.getLastName())))
+                .andExpect(jsonPath("$.email", is(employee1.getEmail())));
+
+    }
+
+    @DisplayName("Integration Test - Negative Scenario - Create employee operation with an existing email")
+    @Test
+    void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        // given
+        employeeRepository.save(employee1);
+
+        // when
+        ResultActions resultActions = mockMvc.perform(post("/api/employees/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee1)));
+
+        // then
+        resultActions.andExpect(status().isConflict())
+                .andDo(print())
+                .andExpect(jsonPath("$.error", is("EMPLOYEE_EXISTS")));
+    }
+
+    @DisplayName("Integration Test - GetAll employee operation")
+    @Test
+    @SqlBudget(select = 1)
+    void givenListOfEmployees_whenGetAllEmployees_thenReturnsEmployeesList() throws Exception {
+        // given
+        employeeRepository.saveAll(employeeList);
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getAll"));
+
+        // then
+        result.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(employeeList.size())));
+    }
+
+    @DisplayName("Integration Test - Positive Scenario - GetById Employee Operation")
+    @Test
+    void givenEmployeeId_whenGetById_thenReturnEmployeeObject() throws Exception {
+        // given (stubbing)
+        Employee savedEmployee = employeeRepository.save(employee1);
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/getById/{id}", savedEmployee.getId()));
+
+        // then
+        result.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.firstName", CoreMatchers.is(employee1.getFirstName())))
+                .andExpect(jsonPath("$.lastName", CoreMatchers.is(employee1.getLastName())))
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee1.getEmail())));
+
+    }
+
+    @DisplayName("Integration Test - Negative Scenario - GetById Employee Operation")
+    @Test
+    void givenInvalidEmployeeId_whenGetById_thenReturnEmployeeObject() throws Exception {
+        // given
+        final long id = 3;
+        employeeRepository.save(employee1);
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/employees/getById/{id}", id));
+
+        // then
+        result.andExpect(status().is4xxClientError())
+              .andDo(print());
+    }
+
+    @DisplayName("Integration Test - GetByIds Employee Operation")
+    @Test
+    void givenEmployeeIds_whenGetByIds_thenReturnLookupsInRequestOrder() throws Exception {
+        // given
+        List<Employee> savedEmployees = employeeRepository.saveAll(employeeList);
+        long missingId = savedEmployees.get(1).getId() + 1;
+
+        // when
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/employees/getByIds")
+                .param("ids", String.valueOf(savedEmployees.get(1).getId()), String.valueOf(missingId),
+                        String.valueOf(savedEmployees.get(0).getId())));
+
+        // then
+        result.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$[0].employee.email", CoreMatchers.is(savedEmployees.get(1).getEmail())))
+                .andExpect(jsonPath("$[1].found", CoreMatchers.is(false)))
+                .andExpect(jsonPath("$[2].employee.email", CoreMatchers.is(savedEmployees.get(0).getEmail())));
+    }
+
+    @DisplayName("Integration Test - Positive Scenario - Update Employee Operation")
+    @Test
+    @SqlBudget(select = 1, update = 1)
+    void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() throws Exception {
+        // given
+        Employee savedEmployee = employeeRepository.save(employee1);
+
+        // when
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .put("/api/employees/update/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee2)))
+                ;
+
+        // then
+        resultActions
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.firstName", CoreMatchers.is(employee2.getFirstName())))
+                .andExpect(jsonPath("$.lastName", CoreMatchers.is(employee2.getLastName())))
+                .andExpect(jsonPath("$.email", CoreMatchers.is(employee2.getEmail())));
+    }
+
+    @DisplayName("Integration Test - Update Employee Operation to an email another employee has")
+    @Test
+    void givenEmailOfAnotherEmployee_whenUpdateEmployee_thenReturnConflict() throws Exception {
+        // given
+        Employee savedEmployee = employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        // when
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .put("/api/employees/update/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee2)));
+
+        // then
+        resultActions
+                .andExpect(status().isConflict())
+                .andDo(print())
+                .andExpect(jsonPath("$.error", CoreMatchers.is("EMPLOYEE_EXISTS")));
+        assertThat(employeeRepository.findById(savedEmployee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo(savedEmployee.getEmail());
+    }
+
+    @DisplayName("Integration Test - Negative Scenario - Update Employee Operation")
+    @Test
+    void givenEmptyEmployeeObject_whenUpdateEmployee_thenReturnNotFoundStatusCode() throws Exception {
+        var employeeId = 3;
+        // given
+        employeeRepository.save(employee1);
+
+        // when
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders
+                .put("/api/employees/update/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee2)))
+                ;
+
+        // then
+        resultActions
+                .andExpect(status().is4xxClientError())
+                .andDo(print());
+    }
+
+    @DisplayName("Integration Test - Upsert of a full chunk reaches a stream subscriber as one RESET")
+    @Test
+    void givenStreamSubscriber_whenThousandRowsUpserted_thenSingleResetDelivered() throws Exception {
+        // given
+        MvcResult stream = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        List<Employee> roster = IntStream.range(0, 1000)
+                .mapToObj(i -> Employee.builder().firstName("First" + i).lastName("Last" + i).email("roster" + i + "@gmail.com").build())
+                .toList();
+
+        // when
+        ResultActions resultActions = mockMvc.perform(post("/api/employees/upsert")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(roster)));
+
+        // then
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(1000)));
+        try {
+            // a thousand row events would overflow the subscriber's buffer and drop it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!stream.getResponse().getContentAsString().contains("event:RESET") && System.nanoTime() < deadline)
+                Thread.sleep(10);
+            assertThat(stream.getResponse().getContentAsString())
+                    .contains("event:RESET", "\"inserted\":1000")
+                    .doesNotContain("event:CREATED");
+        } finally {
+            stream.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    @DisplayName("Integration Test - Delete Employee Operation")
+    @Test
+    @SqlBudget(select = 1, delete = 1)
+    void givenAValidEmployeeId_whenDeletedEmployee_thenReturn2xx() throws Exception {
+        // given
+        long employeeId = 1L;
+        Employee savedEmployee = employeeRepository.save(employee1);
+
+        // when
+        ResultActions resultActions = mockMvc.perform(delete("/api/employees/delete/{id}", savedEmployee.getId()));
+
+        // then
+        resultActions.andExpect(status().isOk())
+                .andDo(print());
+    }
+}
+
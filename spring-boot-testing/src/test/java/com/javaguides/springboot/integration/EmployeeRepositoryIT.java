@@ -1,21 +1,31 @@
 package com.javaguides.springboot.integration;
 
 import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import com.javaguides.springboot.integration.sql.AutoConfigureSqlBudgets;
+import com.javaguides.springboot.integration.sql.SqlBudget;
 import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
 import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.repository.EmployeeUpsertRepository.UpsertedEmployees;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.javaguides.springboot.TestUtils.*;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
+@AutoConfigureSqlBudgets
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 // to integration test, we need to use the real database (not a mocked one), in our case MySQL
 // this config help us to switch it (@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE))
@@ -40,6 +50,8 @@ public class EmployeeRepositoryIT extends ContainerBaseTest {
 
     @DisplayName("FindAll Employee Operation")
     @Test
+    // each save() of an employee with an id merges, so it selects before inserting
+    @SqlBudget(select = 3, insert = 2, scope = SqlBudget.Scope.TEST)
     void givenEmployees_whenFindAll_thenEmployeesList(){
         // given
         employeeRepository.save(employee1);
@@ -151,6 +163,96 @@ public class EmployeeRepositoryIT extends ContainerBaseTest {
         assertThat(employeeManaged).isNotNull();
     }
 
+    @DisplayName("streamAllEmails Employee Operation")
+    @Test
+    void givenEmployees_whenStreamAllEmails_thenEveryEmailStreamed(){
+        // given
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        // when
+        List<String> emails;
+        try (Stream<String> stream = employeeRepository.streamAllEmails()) {
+            emails = stream.toList();
+        }
+
+        // then
+        assertThat(emails).containsExactlyInAnyOrder(employee1.getEmail(), employee2.getEmail());
+    }
+
+    @DisplayName("findByUpdatedAtAfter and streamAllIds Employee Operation")
+    @Test
+    void givenEmployees_whenFindByUpdatedAtAfter_thenRowsStampedByTheDatabase(){
+        // given
+        Instant beforeSave = Instant.now().minus(1, ChronoUnit.HOURS);
+        Employee saved1 = employeeRepository.save(employee1);
+        Employee saved2 = employeeRepository.save(employee2);
+
+        // when
+        List<Employee> changed = employeeRepository.findByUpdatedAtAfter(beforeSave);
+        List<Long> ids;
+        try (Stream<Long> stream = employeeRepository.streamAllIds()) {
+            ids = stream.toList();
+        }
+
+        // then
+        assertThat(changed).hasSize(2);
+        assertThat(employeeRepository.findByUpdatedAtAfter(Instant.now().plus(1, ChronoUnit.HOURS))).isEmpty();
+        assertThat(ids).containsExactlyInAnyOrder(saved1.getId(), saved2.getId());
+    }
+
+    @DisplayName("upsertByEmail Employee Operation")
+    @Test
+    void givenStoredEmployees_whenUpsertByEmail_thenOnlyNewAndChangedRowsWritten(){
+        // given
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+        Employee unchanged = employee1.toBuilder().id(0).build();
+        Employee renamed = employee2.toBuilder().id(0).lastName("Renamed").build();
+        Employee added = Employee.builder().firstName(firstName).lastName("Added").email("added@gmail.com").build();
+
+        // when
+        UpsertedEmployees upserted = employeeRepository.upsertByEmail(List.of(unchanged, renamed, added));
+
+        // then
+        assertThat(upserted.unchanged()).isEqualTo(1);
+        assertThat(upserted.updated()).containsExactly(renamed);
+        assertThat(renamed.getId()).isEqualTo(employee2.getId());
+        assertThat(upserted.inserted()).containsExactly(added);
+        assertThat(added.getId()).isGreaterThan(0);
+        assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+
+    @DisplayName("findAllProjected Employee Operation")
+    @Test
+    void givenEmployees_whenFindAllProjected_thenOnlyRequestedFields(){
+        // given
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        // when
+        List<Map<String, Object>> employees = employeeRepository.findAllProjected(EnumSet.of(EmployeeField.EMAIL, EmployeeField.ID));
+
+        // then
+        assertThat(employees).hasSize(2);
+        assertThat(employees.get(0)).containsOnlyKeys("id", "email");
+        assertThat(employees).extracting(employee -> employee.get("email")).containsExactlyInAnyOrder(email1, email2);
+    }
+
+    @DisplayName("findProjectedById Employee Operation")
+    @Test
+    void givenEmployeeObject_whenFindProjectedById_thenOnlyRequestedFields(){
+        // given
+        employeeRepository.save(employee1);
+
+        // when
+        Optional<Map<String, Object>> employee = employeeRepository.findProjectedById(employee1.getId(), EnumSet.of(EmployeeField.LAST_NAME));
+
+        // then
+        assertThat(employee).contains(Map.of("lastName", lastName1));
+        assertThat(employeeRepository.findProjectedById(-1, EnumSet.of(EmployeeField.LAST_NAME))).isEmpty();
+    }
+
     @DisplayName("findByNativeQueryNamedParams Employee Operation")
     @Test
     void givenEmployeeObject_whenFindByNativeQueryNamedParams_thenEmployee(){
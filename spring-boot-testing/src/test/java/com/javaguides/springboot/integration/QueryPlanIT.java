@@ -0,0 +1,225 @@
+package com.javaguides.springboot.integration;
+
+import com.javaguides.springboot.integration.config.ContainerBaseTest;
+import com.javaguides.springboot.integration.plan.CapturingStatementInspector;
+import com.javaguides.springboot.integration.plan.QueryPlan;
+import com.javaguides.springboot.repository.EmployeeRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Explains every {@link EmployeeRepository} query against a seeded MySQL table and fails when one
+ * stops using the index it was written for. The plans are also compared to the snapshots in
+ * {@code src/test/resources/query-plans}, so any plan change shows up in review.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanIT extends ContainerBaseTest {
+
+    // enough rows for the optimizer to prefer an index over scanning, with realistic name cardinality
+    private static final int ROWS = 50_000;
+    private static final int FIRST_NAMES = 500;
+    private static final int SAMPLE = 12_345;
+
+    private static final String PRIMARY = "PRIMARY";
+    private static final String EMAIL_INDEX = "uk_employees_email";
+    private static final String NAME_INDEX = "idx_employees_name";
+    private static final String UPDATED_AT_INDEX = "idx_employees_updated_at";
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CapturingStatementInspector statements;
+
+    @BeforeAll
+    void seed() {
+        employeeRepository.deleteAllInBatch();
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++)
+            rows.add(new Object[]{firstName(i), lastName(i), email(i)});
+        jdbcTemplate.batchUpdate("insert into employees (first_name, last_name, email) values (?, ?, ?)", rows);
+        // fresh statistics, otherwise the plans depend on when InnoDB last sampled the table
+        jdbcTemplate.queryForList("ANALYZE TABLE employees");
+    }
+
+    @AfterAll
+    void tearDown() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @BeforeEach
+    void setUp() {
+        statements.clear();
+    }
+
+    @DisplayName("findByEmail uses the unique email index")
+    @Test
+    void findByEmail() {
+        employeeRepository.findByEmail(email(SAMPLE));
+
+        explain("findByEmail", email(SAMPLE))
+                .assertUsesIndex(EMAIL_INDEX)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findByJPQL uses the name index")
+    @Test
+    void findByJPQL() {
+        employeeRepository.findByJPQL(firstName(SAMPLE), lastName(SAMPLE));
+
+        explain("findByJPQL", firstName(SAMPLE), lastName(SAMPLE))
+                .assertUsesIndex(NAME_INDEX)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findByJPQLNamedParams uses the name index")
+    @Test
+    void findByJPQLNamedParams() {
+        employeeRepository.findByJPQLNamedParams(firstName(SAMPLE), lastName(SAMPLE));
+
+        explain("findByJPQLNamedParams", firstName(SAMPLE), lastName(SAMPLE))
+                .assertUsesIndex(NAME_INDEX)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findByNativeQuery uses the name index")
+    @Test
+    void findByNativeQuery() {
+        employeeRepository.findByNativeQuery(firstName(SAMPLE), lastName(SAMPLE));
+
+        explain("findByNativeQuery", firstName(SAMPLE), lastName(SAMPLE))
+                .assertUsesIndex(NAME_INDEX)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findByNativeQueryNamedParams uses the name index")
+    @Test
+    void findByNativeQueryNamedParams() {
+        employeeRepository.findByNativeQueryNamedParams(firstName(SAMPLE), lastName(SAMPLE));
+
+        explain("findByNativeQueryNamedParams", firstName(SAMPLE), lastName(SAMPLE))
+                .assertUsesIndex(NAME_INDEX)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findById uses the primary key")
+    @Test
+    void findById() {
+        long id = jdbcTemplate.queryForObject("select id from employees where email = ?", Long.class, email(SAMPLE));
+
+        employeeRepository.findById(id);
+
+        explain("findById", id)
+                .assertUsesIndex(PRIMARY)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findAllById uses the primary key")
+    @Test
+    void findAllById() {
+        List<Long> ids = jdbcTemplate.queryForList("select id from employees order by id limit 3", Long.class);
+
+        employeeRepository.findAllById(ids);
+
+        explain("findAllById", ids.toArray())
+                .assertUsesIndex(PRIMARY)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findByUpdatedAtAfter uses the updated_at index")
+    @Test
+    void findByUpdatedAtAfter() {
+        // the warm start asks for the few rows changed after its mark
+        Timestamp mark = jdbcTemplate.queryForObject("select max(updated_at) from employees", Timestamp.class);
+
+        employeeRepository.findByUpdatedAtAfter(mark.toInstant());
+
+        explain("findByUpdatedAtAfter", mark)
+                .assertUsesIndex(UPDATED_AT_INDEX)
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("findAll reads the whole table without sorting")
+    @Test
+    void findAll() {
+        employeeRepository.findAll();
+
+        explain("findAll")
+                .assertFullScan()
+                .assertMatchesSnapshot();
+    }
+
+    @DisplayName("streamAllEmails reads the whole table without sorting")
+    @Test
+    void streamAllEmails() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+                emails.findFirst();
+            }
+        });
+
+        explain("streamAllEmails")
+                .assertFullScan()
+                .assertMatchesSnapshot();
+    }
+
+    private QueryPlan explain(String name, Object... args) {
+        return QueryPlan.explain(jdbcTemplate, name, statements.lastSelect(), args);
+    }
+
+    private static String firstName(int i) {
+        return "First" + (i % FIRST_NAMES);
+    }
+
+    private static String lastName(int i) {
+        return "Last" + (i / FIRST_NAMES);
+    }
+
+    private static String email(int i) {
+        return "employee" + i + "@example.com";
+    }
+}
@@ -0,0 +1,237 @@
+package com.javaguides.springboot.integration;
+
+import com.javaguides.springboot.integration.config.ShardContainers;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeField;
+import com.javaguides.springboot.repository.EmployeeUpsertRepository.UpsertedEmployees;
+import com.javaguides.springboot.sharding.EmployeeIdGenerator;
+import com.javaguides.springboot.sharding.ShardRing;
+import com.javaguides.springboot.sharding.ShardedEmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link ShardedEmployeeRepository} on three MySQL instances, two of them active at first.
+ */
+class ShardedEmployeeRepositoryIT {
+
+    private static final List<String> TWO_SHARDS = List.of("shard-0", "shard-1");
+    private static final List<String> THREE_SHARDS = List.of("shard-0", "shard-1", "shard-2");
+
+    private Map<String, HikariDataSource> dataSources;
+    private ShardedEmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setUp() {
+        dataSources = ShardContainers.dataSources(3, 4);
+        employeeRepository = new ShardedEmployeeRepository(new LinkedHashMap<String, DataSource>(dataSources),
+                ShardRing.of(TWO_SHARDS), new EmployeeIdGenerator(0), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.shutdown();
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+
+    @DisplayName("A saved employee is found by id and by email on the shard of its email")
+    @Test
+    void givenEmployee_whenSave_thenFoundByIdAndEmail() {
+        // when
+        Employee saved = employeeRepository.save(employee(1));
+
+        // then
+        assertThat(EmployeeIdGenerator.slotOf(saved.getId())).isEqualTo(EmployeeIdGenerator.slotOf(saved.getEmail()));
+        assertThat(employeeRepository.findById(saved.getId())).get().extracting(Employee::getEmail).isEqualTo(saved.getEmail());
+        assertThat(employeeRepository.findByEmail(saved.getEmail().toUpperCase())).get()
+                .extracting(Employee::getId).isEqualTo(saved.getId());
+        assertThat(employeeRepository.usage().get(owner(saved.getEmail())).rows()).isEqualTo(1);
+    }
+
+    @DisplayName("A detached employee with an unknown id is stored as a copy and left unchanged")
+    @Test
+    void givenUnknownId_whenSave_thenCopyGetsGeneratedId() {
+        // given
+        Employee detached = employee(1);
+        detached.setId(42L);
+
+        // when
+        Employee saved = employeeRepository.save(detached);
+
+        // then
+        assertThat(saved).isNotSameAs(detached);
+        assertThat(saved.getId()).isNotEqualTo(42L);
+        assertThat(detached.getId()).isEqualTo(42L);
+        assertThat(employeeRepository.findById(saved.getId())).isPresent();
+    }
+
+    @DisplayName("findAll and projections gather every shard in id order")
+    @Test
+    void givenEmployeesOnAllShards_whenFindAll_thenMergedInIdOrder() {
+        // given
+        List<Employee> saved = employeeRepository.saveAll(IntStream.range(0, 50).mapToObj(i -> employee(i)).toList());
+
+        // when
+        List<Employee> employees = employeeRepository.findAll();
+        List<Map<String, Object>> emails = employeeRepository.findAllProjected(EnumSet.of(EmployeeField.EMAIL));
+
+        // then
+        assertThat(employeeRepository.usage().values()).filteredOn(usage -> usage.slots() > 0)
+                .allSatisfy(usage -> assertThat(usage.rows()).isPositive());
+        assertThat(employees).extracting(Employee::getId)
+                .isSorted()
+                .containsExactlyInAnyOrderElementsOf(saved.stream().map(Employee::getId).toList());
+        assertThat(emails).extracting(row -> row.get("email"))
+                .containsExactlyElementsOf(employees.stream().map(Employee::getEmail).toList());
+        assertThat(emails.get(0)).containsOnlyKeys("email");
+        assertThat(employeeRepository.count()).isEqualTo(50);
+    }
+
+    @DisplayName("An email changed to one on another shard is routed there and stays unique")
+    @Test
+    void givenEmailChangedAcrossShards_whenFindByEmail_thenFollowsTheRoute() {
+        // given
+        Employee employee = employeeRepository.save(employee(0));
+        String elsewhere = emailOnOtherShard(employee.getEmail());
+        employee.setEmail(elsewhere);
+
+        // when
+        employeeRepository.save(employee);
+
+        // then
+        assertThat(employeeRepository.findByEmail(elsewhere)).get().extracting(Employee::getId).isEqualTo(employee.getId());
+        assertThat(employeeRepository.findByEmail("employee0@example.com")).isEmpty();
+        assertThatThrownBy(() -> employeeRepository.save(Employee.builder()
+                .firstName("Other").lastName("Employee").email(elsewhere).build()))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("uk_employees_email");
+
+        // when the row is deleted, so is its route
+        employeeRepository.deleteById(employee.getId());
+        assertThat(employeeRepository.findByEmail(elsewhere)).isEmpty();
+        assertThat(employeeRepository.save(Employee.builder()
+                .firstName("Other").lastName("Employee").email(elsewhere).build()).getId()).isPositive();
+    }
+
+    @DisplayName("Bulk upsert inserts new emails and updates changed names on every shard")
+    @Test
+    void givenStoredEmployees_whenUpsertByEmail_thenInsertsAndUpdates() {
+        // given
+        employeeRepository.saveAll(IntStream.range(0, 10).mapToObj(i -> employee(i)).toList());
+        List<Employee> roster = new ArrayList<>(IntStream.range(5, 15).mapToObj(i -> employee(i)).toList());
+        roster.get(0).setLastName("Renamed");
+
+        // when
+        UpsertedEmployees upserted = employeeRepository.upsertByEmail(roster);
+
+        // then
+        assertThat(upserted.inserted()).hasSize(5);
+        assertThat(upserted.updated()).hasSize(1);
+        assertThat(upserted.unchanged()).isEqualTo(4);
+        assertThat(employeeRepository.count()).isEqualTo(15);
+        assertThat(employeeRepository.findByEmail("employee5@example.com")).get()
+                .extracting(Employee::getLastName).isEqualTo("Renamed");
+    }
+
+    @DisplayName("Rebalancing onto a third shard moves only its slots and keeps every row readable")
+    @Test
+    void givenTwoShards_whenRebalancedOntoThree_thenRowsMoveToTheNewShard() {
+        // given
+        List<Employee> saved = employeeRepository.saveAll(IntStream.range(0, 200).mapToObj(i -> employee(i)).toList());
+        Employee routed = saved.get(0);
+        routed.setEmail(emailOnOtherShard(routed.getEmail()));
+        employeeRepository.save(routed);
+        ShardRing three = ShardRing.of(THREE_SHARDS);
+
+        // when
+        ShardedEmployeeRepository.Rebalance rebalance = employeeRepository.rebalance(three);
+
+        // then
+        assertThat(rebalance.slots()).isEqualTo(ShardRing.of(TWO_SHARDS).movedSlots(three).size());
+        assertThat(employeeRepository.usage().get("shard-2").rows()).isEqualTo(rebalance.rows()).isPositive();
+        assertThat(employeeRepository.usage().values().stream().mapToLong(ShardedEmployeeRepository.ShardUsage::rows).sum())
+                .isEqualTo(200);
+        assertThat(employeeRepository.findAll()).hasSize(200);
+        for (Employee employee : saved) {
+            assertThat(employeeRepository.findById(employee.getId())).isPresent();
+            assertThat(employeeRepository.findByEmail(employee.getEmail())).isPresent();
+        }
+        assertThat(employeeRepository.save(employee(200)).getId()).isPositive();
+    }
+
+    @DisplayName("A restart after a rebalance routes by the slots the shards own, not by the configured ring")
+    @Test
+    void givenRebalancedShards_whenRestartedWithOldRing_thenEveryRowStillFound() {
+        // given
+        List<Employee> saved = employeeRepository.saveAll(IntStream.range(0, 200).mapToObj(i -> employee(i)).toList());
+        employeeRepository.rebalance(ShardRing.of(THREE_SHARDS));
+        employeeRepository.shutdown();
+
+        // when
+        employeeRepository = new ShardedEmployeeRepository(new LinkedHashMap<String, DataSource>(dataSources),
+                ShardRing.of(TWO_SHARDS), new EmployeeIdGenerator(0), 4);
+
+        // then
+        assertThat(employeeRepository.usage().get("shard-2").slots()).isPositive();
+        assertThat(employeeRepository.findAll()).hasSize(200);
+        for (Employee employee : saved) {
+            assertThat(employeeRepository.findById(employee.getId())).isPresent();
+            assertThat(employeeRepository.findByEmail(employee.getEmail())).isPresent();
+        }
+    }
+
+    @DisplayName("A shard holding employees of a slot it does not own refuses to start")
+    @Test
+    void givenRowsOnShardNotOwningTheirSlot_whenStarted_thenRefused() {
+        // given: the claim of a stored employee's slot handed to another shard behind the rows' back
+        Employee saved = employeeRepository.save(employee(1));
+        int slot = EmployeeIdGenerator.slotOf(saved.getId());
+        String owner = owner(saved.getEmail());
+        String other = TWO_SHARDS.stream().filter(shard -> !shard.equals(owner)).findFirst().orElseThrow();
+        employeeRepository.shutdown();
+        new JdbcTemplate(dataSources.get(owner)).update("delete from shard_slots where slot = ?", slot);
+        new JdbcTemplate(dataSources.get(other)).update("insert into shard_slots (slot) values (?)", slot);
+
+        // when / then
+        assertThatThrownBy(() -> new ShardedEmployeeRepository(new LinkedHashMap<String, DataSource>(dataSources),
+                ShardRing.of(TWO_SHARDS), new EmployeeIdGenerator(0), 4))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(owner + " holds employees of slots [" + slot + "]");
+    }
+
+    private static Employee employee(int index) {
+        return Employee.builder()
+                .firstName("First" + index)
+                .lastName("Last" + index)
+                .email("employee" + index + "@example.com")
+                .build();
+    }
+
+    private String owner(String email) {
+        return employeeRepository.ring().ownerOf(EmployeeIdGenerator.slotOf(email));
+    }
+
+    private String emailOnOtherShard(String email) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "moved" + i + "@example.com")
+                .filter(moved -> !owner(moved).equals(owner(email)))
+                .findFirst()
+                .orElseThrow();
+    }
+}
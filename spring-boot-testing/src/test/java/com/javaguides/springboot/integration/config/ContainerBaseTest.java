@@ -17,8 +17,9 @@ public abstract class ContainerBaseTest {
         MY_SQL_CONTAINER.start();
     }
 
+    // public for tests that cannot extend this class, calling it starts the shared container
     @DynamicPropertySource
-    static void dynamicPropertySource(DynamicPropertyRegistry dynamicPropertyRegistry){
+    public static void dynamicPropertySource(DynamicPropertyRegistry dynamicPropertyRegistry){
         dynamicPropertyRegistry.add("spring.datasource.url", MY_SQL_CONTAINER::getJdbcUrl);
         dynamicPropertyRegistry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
         dynamicPropertyRegistry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
@@ -0,0 +1,49 @@
+package com.javaguides.springboot.integration.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Separate MySQL instances for sharding tests, named {@code shard-0}, {@code shard-1}, ... Each
+ * container is limited to one CPU, so on one host the shards add capacity the way separate
+ * machines would rather than competing for the same cores. Containers start on first use and are
+ * shared by the tests of the JVM, like {@link ContainerBaseTest}'s.
+ */
+public final class ShardContainers {
+
+    private static final List<MySQLContainer<?>> CONTAINERS = new ArrayList<>();
+
+    private ShardContainers() {
+    }
+
+    /**
+     * Pools to the first {@code count} instances, their employee and slot tables dropped; the caller
+     * closes them.
+     */
+    public static synchronized Map<String, HikariDataSource> dataSources(int count, int poolSize) {
+        while (CONTAINERS.size() < count) {
+            MySQLContainer<?> container = new MySQLContainer<>("mysql:latest")
+                    .withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withNanoCPUs(1_000_000_000L));
+            container.start();
+            CONTAINERS.add(container);
+        }
+        Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            MySQLContainer<?> container = CONTAINERS.get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(container.getJdbcUrl());
+            dataSource.setUsername(container.getUsername());
+            dataSource.setPassword(container.getPassword());
+            dataSource.setMaximumPoolSize(poolSize);
+            new JdbcTemplate(dataSource).execute("drop table if exists employees, employee_email_routes, shard_slots");
+            dataSources.put("shard-" + i, dataSource);
+        }
+        return dataSources;
+    }
+}
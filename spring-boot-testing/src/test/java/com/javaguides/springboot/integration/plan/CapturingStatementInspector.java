@@ -0,0 +1,32 @@
+package com.javaguides.springboot.integration.plan;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends for every statement, so a test can explain exactly what a
+ * repository method issued instead of a hand-written copy of it.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private final List<String> statements = new ArrayList<>();
+
+    @Override
+    public synchronized String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public synchronized void clear() {
+        statements.clear();
+    }
+
+    public synchronized String lastSelect() {
+        for (int i = statements.size() - 1; i >= 0; i--)
+            if (statements.get(i).regionMatches(true, 0, "select", 0, 6))
+                return statements.get(i);
+        throw new IllegalStateException("No select statement captured in " + statements);
+    }
+}
@@ -0,0 +1,140 @@
+package com.javaguides.springboot.integration.plan;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MySQL {@code EXPLAIN FORMAT=JSON} of one statement, reduced to what should only change on
+ * purpose: per table the access type, the chosen key and its used parts, plus whether a filesort
+ * or a temporary table is needed. Costs and row estimates are left out, they move with the data.
+ * <p>
+ * Snapshots live in {@value #SNAPSHOT_DIR}. A missing snapshot fails like a changed one, so a new
+ * query cannot slip in unreviewed; run with {@code -Dquery-plans.update=true} to record new
+ * snapshots and re-record the others after an intended change.
+ */
+public final class QueryPlan {
+
+    static final String SNAPSHOT_DIR = "src/test/resources/query-plans";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final String name;
+    private final ObjectNode summary;
+
+    private QueryPlan(String name, JsonNode plan) {
+        this.name = name;
+        this.summary = summarize(plan);
+    }
+
+    /**
+     * Explains {@code sql} with its {@code ?} placeholders bound to {@code args}. When the
+     * statement has more placeholders than arguments (Hibernate pads {@code in} lists) the last
+     * argument is repeated, as Hibernate does.
+     */
+    public static QueryPlan explain(JdbcTemplate jdbcTemplate, String name, String sql, Object... args) {
+        int placeholders = (int) sql.chars().filter(c -> c == '?').count();
+        Object[] bound = Arrays.copyOf(args, placeholders);
+        for (int i = args.length; i < placeholders; i++)
+            bound[i] = args[args.length - 1];
+        String json = jdbcTemplate.queryForObject("EXPLAIN FORMAT=JSON " + sql, String.class, bound);
+        try {
+            return new QueryPlan(name, OBJECT_MAPPER.readTree(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Every table is read through {@code key}, without a full scan, filesort or temporary table.
+     */
+    public QueryPlan assertUsesIndex(String key) {
+        for (JsonNode table : summary.get("tables")) {
+            assertThat(table.path("access_type").asText())
+                    .as("%s: full table scan of %s", name, table.path("table_name").asText())
+                    .isNotEqualTo("ALL");
+            assertThat(table.path("key").asText(null))
+                    .as("%s: index used for %s", name, table.path("table_name").asText())
+                    .isEqualTo(key);
+        }
+        return assertNoFilesortOrTemporary();
+    }
+
+    /**
+     * For statements that read the whole table on purpose; a filesort or temporary table still
+     * fails.
+     */
+    public QueryPlan assertFullScan() {
+        return assertNoFilesortOrTemporary();
+    }
+
+    public void assertMatchesSnapshot() {
+        Path snapshot = Path.of(SNAPSHOT_DIR, name + ".json");
+        try {
+            if (Boolean.getBoolean("query-plans.update")) {
+                Files.createDirectories(snapshot.getParent());
+                Files.writeString(snapshot, OBJECT_MAPPER.writeValueAsString(summary) + System.lineSeparator());
+                return;
+            }
+            assertThat(snapshot)
+                    .as("%s: no plan snapshot, record one with -Dquery-plans.update=true", name)
+                    .exists();
+            assertThat(summary)
+                    .as("%s: plan differs from %s, re-record with -Dquery-plans.update=true if intended", name, snapshot)
+                    .isEqualTo(OBJECT_MAPPER.readTree(snapshot.toFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private QueryPlan assertNoFilesortOrTemporary() {
+        assertThat(summary.get("using_filesort").asBoolean()).as("%s: uses filesort", name).isFalse();
+        assertThat(summary.get("using_temporary_table").asBoolean()).as("%s: uses a temporary table", name).isFalse();
+        return this;
+    }
+
+    private static ObjectNode summarize(JsonNode plan) {
+        ObjectNode summary = OBJECT_MAPPER.createObjectNode();
+        summary.putArray("tables");
+        summary.put("using_filesort", false);
+        summary.put("using_temporary_table", false);
+        collect(plan, summary);
+        return summary;
+    }
+
+    private static void collect(JsonNode node, ObjectNode summary) {
+        if (node.isObject()) {
+            if (node.has("table_name") && node.has("access_type")) {
+                ObjectNode table = ((ArrayNode) summary.get("tables")).addObject();
+                table.set("table_name", node.get("table_name"));
+                table.set("access_type", node.get("access_type"));
+                if (node.has("key"))
+                    table.set("key", node.get("key"));
+                if (node.has("used_key_parts"))
+                    table.set("used_key_parts", node.get("used_key_parts"));
+            }
+            if (node.path("using_filesort").asBoolean())
+                summary.put("using_filesort", true);
+            if (node.path("using_temporary_table").asBoolean())
+                summary.put("using_temporary_table", true);
+            for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); )
+                collect(fields.next().getValue(), summary);
+        } else if (node.isArray()) {
+            for (JsonNode element : node)
+                collect(element, summary);
+        }
+    }
+}
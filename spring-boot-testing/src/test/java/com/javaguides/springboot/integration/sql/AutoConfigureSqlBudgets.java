@@ -0,0 +1,23 @@
+package com.javaguides.springboot.integration.sql;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables {@link SqlBudget} assertions on a Spring test class.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@ExtendWith(SqlBudgetExtension.class)
+@Import(SqlBudgetConfiguration.class)
+public @interface AutoConfigureSqlBudgets {
+}
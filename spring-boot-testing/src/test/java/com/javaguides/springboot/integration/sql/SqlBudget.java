@@ -0,0 +1,37 @@
+package com.javaguides.springboot.integration.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements of each kind a test may execute; a kind left out may not be
+ * executed at all. Statements are counted by {@link SqlBudgetExtension}, which needs
+ * {@link AutoConfigureSqlBudgets} on the test class.
+ * <p>
+ * Placed on the class it applies to every test method without its own budget.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SqlBudget {
+
+    int select() default 0;
+
+    int insert() default 0;
+
+    int update() default 0;
+
+    int delete() default 0;
+
+    Scope scope() default Scope.REQUEST;
+
+    enum Scope {
+        /** Only statements executed while MockMvc serves a request, so the given steps are free. */
+        REQUEST,
+        /** Every statement the test method executes on its own thread. */
+        TEST
+    }
+}
@@ -0,0 +1,55 @@
+package com.javaguides.springboot.integration.sql;
+
+import com.javaguides.springboot.timing.ObservedDataSourcePostProcessor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Registers the {@link SqlStatementRecorder} with the observed DataSource (imported for test
+ * slices that do not scan it) and, in web tests, marks the request threads it should count.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@Import(ObservedDataSourcePostProcessor.class)
+class SqlBudgetConfiguration {
+
+    @Bean
+    SqlStatementRecorder sqlStatementRecorder() {
+        return new SqlStatementRecorder();
+    }
+
+    @Bean
+    RequestMarkingFilter sqlBudgetRequestMarkingFilter(SqlStatementRecorder recorder) {
+        return new RequestMarkingFilter(recorder);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    static class RequestMarkingFilter extends OncePerRequestFilter {
+
+        private final SqlStatementRecorder recorder;
+
+        RequestMarkingFilter(SqlStatementRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            recorder.enterRequest();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                recorder.exitRequest();
+            }
+        }
+    }
+}
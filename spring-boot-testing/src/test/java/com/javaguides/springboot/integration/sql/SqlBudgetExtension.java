@@ -0,0 +1,75 @@
+package com.javaguides.springboot.integration.sql;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fails a test whose statements exceed its {@link SqlBudget}, listing every captured statement.
+ * Recording starts after the {@code @BeforeEach} methods, so setup is never counted.
+ */
+public class SqlBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    enum Kind { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        SqlBudget budget = findBudget(context);
+        if (budget != null)
+            recorder(context).start(budget.scope());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlBudget budget = findBudget(context);
+        if (budget == null)
+            return;
+        List<String> statements = recorder(context).stop();
+
+        Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+        for (String sql : statements)
+            counts.merge(kind(sql), 1, Integer::sum);
+        Map<Kind, Integer> limits = Map.of(Kind.SELECT, budget.select(), Kind.INSERT, budget.insert(),
+                Kind.UPDATE, budget.update(), Kind.DELETE, budget.delete());
+
+        StringBuilder violations = new StringBuilder();
+        limits.forEach((kind, limit) -> {
+            int count = counts.getOrDefault(kind, 0);
+            if (count > limit)
+                violations.append(String.format("%n  %s: %d executed, budget %d", kind, count, limit));
+        });
+        if (violations.isEmpty())
+            return;
+
+        StringBuilder message = new StringBuilder("SQL budget exceeded in ")
+                .append(context.getDisplayName()).append(violations)
+                .append(String.format("%nCaptured statements (%s scope):", budget.scope()));
+        for (int i = 0; i < statements.size(); i++)
+            message.append(String.format("%n  %3d. %s", i + 1, statements.get(i)));
+        throw new AssertionError(message.toString());
+    }
+
+    private static SqlBudget findBudget(ExtensionContext context) {
+        SqlBudget budget = AnnotatedElementUtils.findMergedAnnotation(context.getRequiredTestMethod(), SqlBudget.class);
+        return budget != null ? budget : AnnotatedElementUtils.findMergedAnnotation(context.getRequiredTestClass(), SqlBudget.class);
+    }
+
+    private static SqlStatementRecorder recorder(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(SqlStatementRecorder.class);
+    }
+
+    static Kind kind(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        for (Kind kind : Kind.values())
+            if (statement.startsWith(kind.name().toLowerCase(Locale.ROOT)))
+                return kind;
+        return Kind.OTHER;
+    }
+}
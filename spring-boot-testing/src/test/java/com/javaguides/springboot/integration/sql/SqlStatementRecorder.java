@@ -0,0 +1,47 @@
+package com.javaguides.springboot.integration.sql;
+
+import com.javaguides.springboot.timing.JdbcListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the SQL executed within the current {@link SqlBudget.Scope}. Work on other threads,
+ * such as background cache rebuilds, is never counted.
+ */
+public class SqlStatementRecorder implements JdbcListener {
+
+    private final ThreadLocal<Boolean> inRequest = ThreadLocal.withInitial(() -> false);
+    private final List<String> statements = new ArrayList<>();
+    private SqlBudget.Scope scope;
+    private Thread testThread;
+
+    @Override
+    public synchronized void statementExecuted(String sql, long nanos) {
+        if (scope == null)
+            return;
+        boolean counted = scope == SqlBudget.Scope.TEST ? Thread.currentThread() == testThread : inRequest.get();
+        if (counted)
+            statements.add(sql == null ? "<batch>" : sql);
+    }
+
+    synchronized void start(SqlBudget.Scope scope) {
+        this.scope = scope;
+        this.testThread = Thread.currentThread();
+        statements.clear();
+    }
+
+    synchronized List<String> stop() {
+        scope = null;
+        testThread = null;
+        return List.copyOf(statements);
+    }
+
+    void enterRequest() {
+        inRequest.set(true);
+    }
+
+    void exitRequest() {
+        inRequest.remove();
+    }
+}
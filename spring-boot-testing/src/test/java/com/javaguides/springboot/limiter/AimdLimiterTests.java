@@ -0,0 +1,82 @@
+package com.javaguides.springboot.limiter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimiterTests {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @DisplayName("Requests over the limit are rejected")
+    @Test
+    void givenFullLimit_whenTryAcquire_thenRejected() {
+        // given
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // when
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @DisplayName("Slow responses shrink the limit down to the minimum")
+    @Test
+    void givenSlowResponses_whenRelease_thenLimitDecreases() {
+        // given
+        AimdLimiter limiter = new AimdLimiter(16, 2, 32, Duration.ofMillis(100), 0.5);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, false);
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @DisplayName("Fast responses on a busy window grow the limit up to the maximum")
+    @Test
+    void givenFastResponses_whenRelease_thenLimitIncreases() {
+        // given
+        AimdLimiter limiter = new AimdLimiter(4, 1, 8, Duration.ofMillis(100), 0.5);
+
+        // when
+        for (int i = 0; i < 200; i++) {
+            while (limiter.tryAcquire()) {
+                // fill the window
+            }
+            limiter.release(FAST, false);
+            while (limiter.getInFlight() > 0)
+                limiter.release(FAST, false);
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @DisplayName("Dropped responses count as overload regardless of latency")
+    @Test
+    void givenDroppedResponse_whenRelease_thenLimitDecreases() {
+        // given
+        AimdLimiter limiter = new AimdLimiter(10, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // when
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+}
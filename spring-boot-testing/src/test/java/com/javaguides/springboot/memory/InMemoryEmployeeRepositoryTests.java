@@ -0,0 +1,191 @@
+package com.javaguides.springboot.memory;
+
+import com.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryEmployeeRepositoryTests {
+
+    private final InMemoryEmployeeRepository employeeRepository = new InMemoryEmployeeRepository();
+
+    @DisplayName("Saved employees are found through every index")
+    @Test
+    void givenSavedEmployee_whenLookedUp_thenFoundByIdEmailAndName() {
+        // given
+        Employee saved = employeeRepository.save(employee("Ada", "Lovelace", "ada@example.com"));
+
+        // when / then
+        assertThat(saved.getId()).isGreaterThan(0);
+        assertThat(employeeRepository.findById(saved.getId())).get().extracting(Employee::getEmail).isEqualTo("ada@example.com");
+        assertThat(employeeRepository.findByEmail("ADA@example.com")).isPresent();
+        assertThat(employeeRepository.findByJPQL("Ada", "Lovelace").getId()).isEqualTo(saved.getId());
+        assertThat(employeeRepository.findByNativeQuery("ada", "lovelace").getId()).isEqualTo(saved.getId());
+        assertThat(employeeRepository.findByJPQL("Ada", "Byron")).isNull();
+    }
+
+    @DisplayName("Updates move the email and name index entries")
+    @Test
+    void givenStoredEmployee_whenEmailAndNameChange_thenOldKeysNoLongerMatch() {
+        // given
+        Employee stored = employeeRepository.save(employee("Ada", "Lovelace", "ada@example.com"));
+        Employee changed = employeeRepository.findById(stored.getId()).orElseThrow();
+        changed.setLastName("King");
+        changed.setEmail("countess@example.com");
+
+        // when
+        employeeRepository.save(changed);
+
+        // then
+        assertThat(employeeRepository.findByEmail("ada@example.com")).isEmpty();
+        assertThat(employeeRepository.findByJPQL("Ada", "Lovelace")).isNull();
+        assertThat(employeeRepository.findByEmail("countess@example.com")).get().extracting(Employee::getLastName).isEqualTo("King");
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
+    @DisplayName("A detached employee with an unknown id is stored as a copy and left unchanged")
+    @Test
+    void givenUnknownId_whenSave_thenCopyGetsGeneratedId() {
+        // given
+        Employee detached = employee("Ada", "Lovelace", "ada@example.com");
+        detached.setId(42L);
+
+        // when
+        Employee saved = employeeRepository.save(detached);
+
+        // then
+        assertThat(saved).isNotSameAs(detached);
+        assertThat(saved.getId()).isEqualTo(1L);
+        assertThat(detached.getId()).isEqualTo(42L);
+        assertThat(employeeRepository.findById(42L)).isEmpty();
+        assertThat(employeeRepository.findById(1L)).get().extracting(Employee::getEmail).isEqualTo("ada@example.com");
+    }
+
+    @DisplayName("The email index is unique and returned rows are copies")
+    @Test
+    void givenStoredEmail_whenSavedAgain_thenIntegrityViolation() {
+        // given
+        Employee stored = employeeRepository.save(employee("Ada", "Lovelace", "ada@example.com"));
+        employeeRepository.findById(stored.getId()).orElseThrow().setEmail("changed@example.com");
+
+        // when / then
+        assertThatThrownBy(() -> employeeRepository.save(employee("Other", "Ada", "Ada@Example.com")))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("uk_employees_email");
+        assertThat(employeeRepository.findByEmail("ada@example.com")).isPresent();
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
+    @DisplayName("Name queries reject several matches like the single-result JPA queries")
+    @Test
+    void givenTwoEmployeesWithSameName_whenFindByJPQL_thenIncorrectResultSize() {
+        // given
+        employeeRepository.save(employee("Ada", "Lovelace", "ada1@example.com"));
+        employeeRepository.save(employee("Ada", "Lovelace", "ada2@example.com"));
+
+        // when / then
+        assertThatThrownBy(() -> employeeRepository.findByJPQL("Ada", "Lovelace"))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+    }
+
+    @DisplayName("Query by example matches the probe like the JPA query")
+    @Test
+    void givenProbe_whenFindAllByExample_thenMatchingEmployees() {
+        // given
+        employeeRepository.save(employee("Ada", "Lovelace", "ada@example.com"));
+        employeeRepository.save(employee("Ada", "Byron", "byron@example.com"));
+        employeeRepository.save(employee("Charles", "Babbage", "charles@example.org"));
+        ExampleMatcher ignoringId = ExampleMatcher.matching().withIgnorePaths("id");
+
+        // when / then
+        assertThat(employeeRepository.findAll(Example.of(employee("ada", null, null), ignoringId),
+                Sort.by(Sort.Direction.DESC, "lastName")))
+                .extracting(Employee::getLastName).containsExactly("Lovelace", "Byron");
+        assertThat(employeeRepository.count(Example.of(employee("Ada", null, null)))).isZero();
+        assertThat(employeeRepository.findAll(Example.of(employee(null, null, "example.com"),
+                ignoringId.withMatcher("email", ExampleMatcher.GenericPropertyMatcher::endsWith))))
+                .hasSize(2);
+        assertThat(employeeRepository.findAll(Example.of(employee(null, "Babbage", "ada@example.com"),
+                ExampleMatcher.matchingAny().withIgnorePaths("id"))))
+                .extracting(Employee::getFirstName).containsExactly("Ada", "Charles");
+        assertThat(employeeRepository.exists(Example.of(employee(null, "King", null), ignoringId))).isFalse();
+        assertThatThrownBy(() -> employeeRepository.findOne(Example.of(employee("Ada", null, null), ignoringId)))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+    }
+
+    @DisplayName("Fluent queries by example sort, page and limit the matches")
+    @Test
+    void givenProbe_whenFindBy_thenSortedPagedAndLimited() {
+        // given
+        for (int i = 0; i < 5; i++)
+            employeeRepository.save(employee("First" + i, "Last", i + "@example.com"));
+        Example<Employee> probe = Example.of(employee(null, "last", null), ExampleMatcher.matching().withIgnorePaths("id"));
+
+        // when
+        Page<Employee> page = employeeRepository.findBy(probe, query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "firstName"))
+                .page(PageRequest.of(1, 2)));
+        List<Employee> limited = employeeRepository.findBy(probe, query -> query.limit(3).all());
+        long count = employeeRepository.findBy(probe, query -> query.count());
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(Employee::getFirstName).containsExactly("First2", "First1");
+        assertThat(limited).extracting(Employee::getFirstName).containsExactly("First0", "First1", "First2");
+        assertThat(count).isEqualTo(5);
+    }
+
+    @DisplayName("Concurrent writers keep the indexes consistent")
+    @Test
+    void givenConcurrentSaves_whenSomeEmailsCollide_thenOneRowPerEmail() throws Exception {
+        // given
+        int threads = 8;
+        int emails = 2_000;
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when: every thread tries to create every email
+        List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++)
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < emails; i++) {
+                    try {
+                        employeeRepository.save(employee("First" + i, "Last" + i, i + "@example.com"));
+                    } catch (DataIntegrityViolationException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        for (Future<?> writer : writers)
+            writer.get();
+        executor.shutdown();
+
+        // then
+        assertThat(employeeRepository.count()).isEqualTo(emails);
+        assertThat(rejected.get()).isEqualTo((threads - 1) * emails);
+        for (int i = 0; i < emails; i++) {
+            Employee byEmail = employeeRepository.findByEmail(i + "@example.com").orElseThrow();
+            assertThat(employeeRepository.findByJPQL("First" + i, "Last" + i).getId()).isEqualTo(byEmail.getId());
+        }
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder().firstName(firstName).lastName(lastName).email(email).build();
+    }
+}
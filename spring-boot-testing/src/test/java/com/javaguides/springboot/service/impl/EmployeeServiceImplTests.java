@@ -1,9 +1,20 @@
 package com.javaguides.springboot.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.bloom.KnownEmailFilter;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.coalescing.EmployeeReadCoalescer;
+import com.javaguides.springboot.event.EmployeeChangedEvent;
+import com.javaguides.springboot.event.EmployeesUpsertedEvent;
+import com.javaguides.springboot.exception.DuplicateEmployeeException;
 import com.javaguides.springboot.exception.ResourceNotFoundException;
 import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeUpsertResult;
 import com.javaguides.springboot.repository.EmployeeRepository;
+import com.javaguides.springboot.repository.EmployeeUpsertRepository.UpsertedEmployees;
 import com.javaguides.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,10 +22,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
 
 import static com.javaguides.springboot.TestUtils.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,6 +51,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +60,18 @@ class EmployeeServiceImplTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KnownEmailFilter knownEmailFilter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private EmployeeReadCoalescer readCoalescer = new EmployeeReadCoalescer(Duration.ofSeconds(2));
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -49,12 +91,26 @@ class EmployeeServiceImplTests {
         assertThat(savedEmployee).isNotNull();
     }
 
+    @DisplayName("save Employee Operation publishes a change event")
+    @Test
+    void givenEmployeeObject_whenSaveEmployee_thenPublishCreatedEvent(){
+        // given
+        given(employeeRepository.save(employee1)).willReturn(employee1);
+
+        // when
+        employeeService.saveEmployee(employee1);
+
+        // then
+        verify(eventPublisher, times(1)).publishEvent(EmployeeChangedEvent.created(employee1));
+    }
+
     @DisplayName("save Employee Operation throwing exception")
     @Test
     void givenExistingEmailEmployeeObject_whenSaveEmployee_thenThrowsException(){
         // given
 
-        // Stub call method findByEmail()
+        // Stub call method findByEmail(), only reached when the filter cannot rule the email out
+        given(knownEmailFilter.mightContain(employee1.getEmail())).willReturn(true);
         given(employeeRepository.findByEmail(employee1.getEmail())).willReturn(Optional.of(employee1));
 
         // Unnecessary stubbing because the exception will be thrown before the save method is called
@@ -69,6 +125,51 @@ class EmployeeServiceImplTests {
 
     }
 
+    @DisplayName("save Employee Operation throwing a stackless duplicate exception")
+    @Test
+    void givenExistingEmail_whenSaveEmployee_thenDuplicateExceptionWithoutStackTrace(){
+        // given
+        given(knownEmailFilter.mightContain(employee1.getEmail())).willReturn(true);
+        given(employeeRepository.findByEmail(employee1.getEmail())).willReturn(Optional.of(employee1));
+
+        // when
+        DuplicateEmployeeException exception = assertThrows(DuplicateEmployeeException.class,
+                () -> employeeService.saveEmployee(employee1));
+
+        // then
+        assertThat(exception.getStackTrace()).isEmpty();
+        assertThat(exception.getMessage()).contains(employee1.getEmail());
+    }
+
+    @DisplayName("save Employee Operation skipping the duplicate check for unknown emails")
+    @Test
+    void givenUnknownEmail_whenSaveEmployee_thenFindByEmailIsSkipped(){
+        // given
+        given(knownEmailFilter.mightContain(employee1.getEmail())).willReturn(false);
+        given(employeeRepository.save(employee1)).willReturn(employee1);
+
+        // when
+        Employee savedEmployee = employeeService.saveEmployee(employee1);
+
+        // then
+        assertThat(savedEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(any());
+        verify(knownEmailFilter, times(1)).add(employee1.getEmail());
+    }
+
+    @DisplayName("save Employee Operation mapping a unique key violation to a duplicate")
+    @Test
+    void givenEmailUnknownToFilterButStored_whenSaveEmployee_thenDuplicateException(){
+        // given
+        given(knownEmailFilter.mightContain(employee1.getEmail())).willReturn(false);
+        given(employeeRepository.save(employee1)).willThrow(new DataIntegrityViolationException(
+                "Duplicate entry '" + employee1.getEmail() + "' for key 'employees.uk_employees_email'"));
+
+        // when / then
+        assertThrows(DuplicateEmployeeException.class, () -> employeeService.saveEmployee(employee1));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @DisplayName("findAll Employee Operation")
     @Test
     void givenEmployeesList_whenGetAllEmployees_thenReturnEmployeesList(){
@@ -128,6 +229,111 @@ class EmployeeServiceImplTests {
         assertThat(savedEmployee).isEmpty();
     }
 
+    @DisplayName("findById stampede for one id reaches the database once")
+    @Test
+    void givenConcurrentCallsForSameId_whenGetEmployeeById_thenRepositoryCalledOnce() throws Exception {
+        // given
+        int callers = 50;
+        CountDownLatch allWaiting = new CountDownLatch(1);
+        given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+            allWaiting.await();
+            return Optional.of(employee1);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        readCoalescer.bindTo(registry);
+        FunctionCounter coalesced = registry.get("employees.coalescing.calls")
+                .tags("query", "by_id", "result", "coalesced").functionCounter();
+
+        // when
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++)
+            results.add(executor.submit(() -> employeeService.getEmployeeById(1L)));
+        // release the database call once every other caller has joined it
+        while (coalesced.count() < callers - 1)
+            Thread.sleep(1);
+        allWaiting.countDown();
+
+        // then
+        Set<Employee> distinctInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Optional<Employee>> result : results) {
+            Employee employee = result.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertThat(employee.getEmail()).isEqualTo(employee1.getEmail());
+            distinctInstances.add(employee);
+        }
+        executor.shutdown();
+        verify(employeeRepository, times(1)).findById(1L);
+        assertThat(registry.get("employees.coalescing.ratio").tag("query", "by_id").gauge().value())
+                .isEqualTo((callers - 1) / (double) callers);
+        // every caller may modify its employee, none of them share an instance
+        assertThat(distinctInstances).hasSize(callers);
+    }
+
+    @DisplayName("findAll for the list cache after a commit does not join a findAll started before it")
+    @Test
+    void givenFindAllInFlight_whenEmployeeCommitted_thenListCacheLoadsItsOwn() throws Exception {
+        // given
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        given(employeeRepository.findAll()).willAnswer(invocation -> {
+            if (calls.incrementAndGet() > 1)
+                return List.of(employee1, employee2);
+            inFlight.countDown();
+            release.await();
+            return List.of(employee1);
+        });
+        EmployeeListResponseCache cache = new EmployeeListResponseCache(employeeService, new ObjectMapper(), Duration.ofMinutes(1));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<List<Employee>> beforeCommit = executor.submit(() -> employeeService.getAllEmployees());
+        inFlight.await();
+
+        // when
+        cache.onEmployeeChanged(EmployeeChangedEvent.created(employee2));
+        Future<EmployeeListResponseCache.CachedBody> afterCommit = executor.submit(() -> cache.get());
+
+        // then
+        // answered while the earlier findAll is still running, well before a coalesced follower
+        // would give up on it (2s), from rows read after the commit
+        EmployeeListResponseCache.CachedBody body = afterCommit.get(1, TimeUnit.SECONDS);
+        release.countDown();
+        assertThat(new String(body.json(), StandardCharsets.UTF_8)).contains(employee2.getEmail());
+        assertThat(beforeCommit.get(5, TimeUnit.SECONDS)).hasSize(1);
+        executor.shutdown();
+    }
+
+    @DisplayName("findAllById Employee Operation in request order with misses")
+    @Test
+    void givenEmployeeIds_whenGetEmployeesByIds_thenReturnResultsInRequestOrder(){
+        // given
+        given(employeeRepository.findAllById(List.of(2L, 3L, 1L))).willReturn(List.of(employee1, employee2));
+
+        // when
+        List<Optional<Employee>> employees = employeeService.getEmployeesByIds(List.of(2L, 3L, 1L, 2L));
+
+        // then
+        assertThat(employees).hasSize(4);
+        assertThat(employees.get(0)).contains(employee2);
+        assertThat(employees.get(1)).isEmpty();
+        assertThat(employees.get(2)).contains(employee1);
+        assertThat(employees.get(3)).contains(employee2);
+    }
+
+    @DisplayName("findAllById Employee Operation split into bounded IN clauses")
+    @Test
+    void givenManyEmployeeIds_whenGetEmployeesByIds_thenQueryInChunks(){
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().toList();
+        given(employeeRepository.findAllById(any())).willReturn(List.of());
+
+        // when
+        List<Optional<Employee>> employees = employeeService.getEmployeesByIds(ids);
+
+        // then
+        assertThat(employees).hasSize(1200).allMatch(Optional::isEmpty);
+        verify(employeeRepository, times(3)).findAllById(any());
+    }
+
     @DisplayName("update Employee Operation")
     @Test
     void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
@@ -145,6 +351,20 @@ class EmployeeServiceImplTests {
         assertThat(updatedEmployee.getLastName()).isEqualTo("updatedLastname");
     }
 
+    @DisplayName("update Employee Operation to an email another employee has")
+    @Test
+    void givenEmailOfAnotherEmployee_whenUpdateEmployee_thenDuplicateException(){
+        // given
+        given(employeeRepository.save(employee1)).willReturn(employee1);
+        willThrow(new DataIntegrityViolationException(
+                "Duplicate entry '" + employee1.getEmail() + "' for key 'employees.uk_employees_email'"))
+                .given(employeeRepository).flush();
+
+        // when / then
+        assertThrows(DuplicateEmployeeException.class, () -> employeeService.updateEmployee(employee1));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @DisplayName("delete Employee Operation")
     @Test
     void givenEmployeeId_whenDeleteEmployee_thenNothing(){
@@ -159,4 +379,47 @@ class EmployeeServiceImplTests {
         verify(employeeRepository, times(1)).deleteById(employeeId);
     }
 
+    @DisplayName("upsert Employee Operation in chunked transactions")
+    @Test
+    void givenRoster_whenUpsertEmployees_thenChunksCountedAndChangesPublished(){
+        // given
+        List<Employee> roster = LongStream.range(0, 1500)
+                .mapToObj(i -> Employee.builder().firstName(firstName).lastName(lastName1).email(i + "@gmail.com").build())
+                .toList();
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(employeeRepository.upsertByEmail(any()))
+                .willReturn(new UpsertedEmployees(List.of(employee1), List.of(employee2), 998))
+                .willReturn(new UpsertedEmployees(List.of(), List.of(), 500));
+
+        // when
+        EmployeeUpsertResult result = employeeService.upsertEmployees(roster);
+
+        // then
+        assertThat(result).isEqualTo(new EmployeeUpsertResult(1, 1, 1498));
+        verify(transactionTemplate, times(2)).execute(any());
+        // one event for the chunk that changed rows, none for the unchanged one
+        verify(eventPublisher, times(1)).publishEvent(new EmployeesUpsertedEvent(1, 1));
+        verify(eventPublisher, never()).publishEvent(any(EmployeeChangedEvent.class));
+        verify(knownEmailFilter, times(1500)).add(any());
+    }
+
+    @DisplayName("upsert Employee Operation keeps the last row of a repeated email")
+    @Test
+    void givenRepeatedEmail_whenUpsertEmployees_thenLastOccurrenceUpserted(){
+        // given
+        Employee first = Employee.builder().firstName(firstName).lastName("First").email("repeated@gmail.com").build();
+        Employee last = Employee.builder().firstName(firstName).lastName("Last").email("Repeated@gmail.com").build();
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        given(employeeRepository.upsertByEmail(List.of(last, employee2)))
+                .willReturn(new UpsertedEmployees(List.of(), List.of(last), 1));
+
+        // when
+        EmployeeUpsertResult result = employeeService.upsertEmployees(List.of(first, employee2, last));
+
+        // then
+        assertThat(result).isEqualTo(new EmployeeUpsertResult(0, 1, 1));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.javaguides.springboot.sharding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class EmployeeIdGeneratorTests {
+
+    @DisplayName("Ids are unique, increasing and carry their slot")
+    @Test
+    void givenSlot_whenNext_thenIdsInTheSlotRange() {
+        // given
+        EmployeeIdGenerator generator = new EmployeeIdGenerator(3);
+        int slot = EmployeeIdGenerator.slotOf("john@gmail.com");
+
+        // when
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+        // more than one millisecond's sequence
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.next(slot);
+
+            // then
+            assertThat(id).isGreaterThan(previous).isBetween(EmployeeIdGenerator.firstId(slot), EmployeeIdGenerator.lastId(slot));
+            assertThat(EmployeeIdGenerator.slotOf(id)).isEqualTo(slot);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(10_000);
+        assertThat(generator.next(EmployeeIdGenerator.SLOTS - 1)).isPositive();
+    }
+
+    @DisplayName("Emails differing only in case share a slot")
+    @Test
+    void givenEmailsDifferingInCase_whenSlotOf_thenSameSlot() {
+        assertThat(EmployeeIdGenerator.slotOf("John@Gmail.com")).isEqualTo(EmployeeIdGenerator.slotOf("john@gmail.com"));
+    }
+
+    @Test
+    void givenNodeOutOfRange_whenCreated_thenRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new EmployeeIdGenerator(16));
+    }
+}
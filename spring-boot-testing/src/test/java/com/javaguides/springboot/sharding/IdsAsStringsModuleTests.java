@@ -0,0 +1,57 @@
+package com.javaguides.springboot.sharding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.model.EmployeeLookup;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdsAsStringsModuleTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new IdsAsStringsModule());
+
+    // above 2^53, a JavaScript number would round it
+    private final long id = EmployeeIdGenerator.firstId(EmployeeIdGenerator.SLOTS - 1) + 1;
+
+    @DisplayName("Entity, lookup and map row ids are written as strings")
+    @Test
+    void givenGeneratedId_whenSerialized_thenIdIsString() throws Exception {
+        // given
+        Employee employee = Employee.builder().id(id).firstName("Ada").lastName("Lovelace").email("ada@example.com").build();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("email", "ada@example.com");
+
+        // when
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(
+                Map.of("employee", employee, "lookups", List.of(EmployeeLookup.hit(id, employee)), "rows", List.of(row))));
+
+        // then
+        assertThat(json.at("/employee/id").isTextual()).isTrue();
+        assertThat(json.at("/employee/id").asText()).isEqualTo(Long.toString(id));
+        assertThat(json.at("/lookups/0/id").asText()).isEqualTo(Long.toString(id));
+        assertThat(json.at("/lookups/0/employee/id").isTextual()).isTrue();
+        assertThat(json.at("/rows/0/id").asText()).isEqualTo(Long.toString(id));
+        assertThat(json.at("/rows/0/email").asText()).isEqualTo("ada@example.com");
+        assertThat(row.get("id")).isEqualTo(id);
+    }
+
+    @DisplayName("A string id is read back exactly, a numeric one still accepted")
+    @Test
+    void givenIdAsStringOrNumber_whenDeserialized_thenSameId() throws Exception {
+        // when
+        Employee fromString = objectMapper.readValue("{\"id\":\"" + id + "\",\"email\":\"ada@example.com\"}", Employee.class);
+        Employee fromNumber = objectMapper.readValue("{\"id\":" + id + ",\"email\":\"ada@example.com\"}", Employee.class);
+
+        // then
+        assertThat(fromString.getId()).isEqualTo(id);
+        assertThat(fromNumber.getId()).isEqualTo(id);
+    }
+}
@@ -0,0 +1,60 @@
+package com.javaguides.springboot.sharding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ShardRingTests {
+
+    @DisplayName("The slots spread evenly and only on the shard names")
+    @Test
+    void givenShards_whenOf_thenBalancedAndIndependentOfOrder() {
+        // when
+        ShardRing ring = ShardRing.of(List.of("shard-0", "shard-1", "shard-2", "shard-3"));
+
+        // then
+        int fairShare = EmployeeIdGenerator.SLOTS / 4;
+        assertThat(ring.slotCounts().values()).allSatisfy(slots -> assertThat(slots).isBetween(fairShare * 2 / 3, fairShare * 4 / 3));
+        assertThat(ring.movedSlots(ShardRing.of(List.of("shard-3", "shard-2", "shard-1", "shard-0")))).isEmpty();
+    }
+
+    @DisplayName("An added shard only takes slots over, about its share, from the others")
+    @Test
+    void givenThreeShards_whenFourthAdded_thenOnlySlotsForTheNewShardMove() {
+        // given
+        ShardRing three = ShardRing.of(List.of("shard-0", "shard-1", "shard-2"));
+
+        // when
+        ShardRing four = ShardRing.of(List.of("shard-0", "shard-1", "shard-2", "shard-3"));
+
+        // then
+        List<Integer> moved = three.movedSlots(four);
+        assertThat(moved).allSatisfy(slot -> assertThat(four.ownerOf(slot)).isEqualTo("shard-3"));
+        assertThat(moved).hasSize(four.slotCounts().get("shard-3"));
+        assertThat(moved.size()).isBetween(EmployeeIdGenerator.SLOTS / 6, EmployeeIdGenerator.SLOTS / 3);
+    }
+
+    @DisplayName("A removed shard hands its slots over and nothing else moves")
+    @Test
+    void givenThreeShards_whenOneRemoved_thenOnlyItsSlotsMove() {
+        // given
+        ShardRing three = ShardRing.of(List.of("shard-0", "shard-1", "shard-2"));
+
+        // when
+        ShardRing two = ShardRing.of(List.of("shard-0", "shard-2"));
+
+        // then
+        List<Integer> moved = three.movedSlots(two);
+        assertThat(moved).allSatisfy(slot -> assertThat(three.ownerOf(slot)).isEqualTo("shard-1"));
+        assertThat(moved).hasSize(three.slotCounts().get("shard-1"));
+    }
+
+    @Test
+    void givenNoShards_whenOf_thenRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ShardRing.of(List.of()));
+    }
+}
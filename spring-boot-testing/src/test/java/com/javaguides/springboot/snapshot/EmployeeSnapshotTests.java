@@ -0,0 +1,85 @@
+package com.javaguides.springboot.snapshot;
+
+import com.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class EmployeeSnapshotTests {
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("A written snapshot reads back with its rows and high-water mark")
+    @Test
+    void givenSnapshot_whenWrittenAndRead_thenSameRowsAndMark() throws IOException {
+        // given
+        Path path = directory.resolve("employees.snapshot");
+        Instant mark = Instant.parse("2024-03-01T10:15:30.123456Z");
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(mark, List.of(
+                Employee.builder().id(1).firstName("Ada").lastName("Lovelace").email("ada@example.com").build(),
+                Employee.builder().id(7).firstName("Zoë").lastName("Ørsted").email("zoe@example.com").build()));
+
+        // when
+        snapshot.write(path);
+        EmployeeSnapshot read = EmployeeSnapshot.read(path).orElseThrow();
+
+        // then
+        assertThat(read.highWaterMark()).isEqualTo(mark);
+        assertThat(read.employees()).extracting(Employee::getId, Employee::getFirstName, Employee::getLastName, Employee::getEmail)
+                .containsExactly(
+                        tuple(1L, "Ada", "Lovelace", "ada@example.com"),
+                        tuple(7L, "Zoë", "Ørsted", "zoe@example.com"));
+        assertThat(Files.exists(directory.resolve("employees.snapshot.tmp"))).isFalse();
+    }
+
+    @DisplayName("The snapshot and a directory created for it are accessible by the owner only")
+    @Test
+    void givenPosixFileSystem_whenWritten_thenOwnerOnlyPermissions() throws IOException {
+        // given
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path path = directory.resolve("ems").resolve("employees.snapshot");
+
+        // when
+        new EmployeeSnapshot(Instant.now(), List.of(
+                Employee.builder().id(1).firstName("Ada").lastName("Lovelace").email("ada@example.com").build()))
+                .write(path);
+
+        // then
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(path))).isEqualTo("rw-------");
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(path.getParent()))).isEqualTo("rwx------");
+    }
+
+    @DisplayName("A missing snapshot is empty, a damaged one is rejected")
+    @Test
+    void givenMissingOrDamagedFile_whenRead_thenEmptyOrRejected() throws IOException {
+        // given
+        Path path = directory.resolve("employees.snapshot");
+        assertThat(EmployeeSnapshot.read(path)).isEmpty();
+        new EmployeeSnapshot(Instant.now(), List.of(
+                Employee.builder().id(1).firstName("Ada").lastName("Lovelace").email("ada@example.com").build()))
+                .write(path);
+
+        // when
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        // then
+        assertThatThrownBy(() -> EmployeeSnapshot.read(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Checksum");
+    }
+}
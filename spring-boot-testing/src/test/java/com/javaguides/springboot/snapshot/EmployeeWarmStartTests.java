@@ -0,0 +1,125 @@
+package com.javaguides.springboot.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javaguides.springboot.bloom.KnownEmailFilter;
+import com.javaguides.springboot.cache.EmployeeListResponseCache;
+import com.javaguides.springboot.memory.InMemoryEmployeeRepository;
+import com.javaguides.springboot.memory.InMemoryPersistenceConfiguration;
+import com.javaguides.springboot.model.Employee;
+import com.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeWarmStartTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryEmployeeRepository employeeRepository = new InMemoryEmployeeRepository();
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(new InMemoryPersistenceConfiguration().transactionManager());
+
+    private EmployeeListResponseCache cache;
+    private KnownEmailFilter knownEmailFilter;
+    private EmployeeWarmStart warmStart;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EmployeeListResponseCache(employeeService, objectMapper, Duration.ofMinutes(1));
+        knownEmailFilter = new KnownEmailFilter(employeeRepository, transactionTemplate, 1_000, 0.01);
+        warmStart = new EmployeeWarmStart(employeeRepository, transactionTemplate, cache, knownEmailFilter,
+                directory.resolve("employees.snapshot"), Duration.ofMinutes(5), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        warmStart.stop();
+    }
+
+    @DisplayName("Startup reads only what changed after the snapshot and warms both caches")
+    @Test
+    void givenSnapshotAndLaterChanges_whenWarm_thenCachesMatchTheTable() throws Exception {
+        // given
+        List<Employee> saved = new ArrayList<>();
+        for (int i = 1; i <= 5; i++)
+            saved.add(employeeRepository.save(employee("First" + i, "Last" + i, "employee" + i + "@example.com")));
+        warmStart.writeSnapshot();
+        Thread.sleep(5); // later changes get a strictly later updated_at than the mark
+
+        Employee renamed = employeeRepository.findById(saved.get(1).getId()).orElseThrow();
+        renamed.setLastName("Renamed");
+        employeeRepository.save(renamed);
+        employeeRepository.deleteById(saved.get(2).getId());
+        employeeRepository.save(employee("First6", "Last6", "employee6@example.com"));
+
+        // when
+        EmployeeWarmStart.Refresh refresh = warmStart.warm().orElseThrow();
+
+        // then
+        assertThat(refresh.fromSnapshot()).isEqualTo(5);
+        assertThat(refresh.changed()).isEqualTo(2);
+        assertThat(refresh.deleted()).isEqualTo(1);
+        JsonNode employees = objectMapper.readTree(cache.get().json());
+        assertThat(employees.findValuesAsText("email")).containsExactly(
+                "employee1@example.com", "employee2@example.com", "employee4@example.com",
+                "employee5@example.com", "employee6@example.com");
+        assertThat(employees.get(1).get("lastName").asText()).isEqualTo("Renamed");
+        assertThat(knownEmailFilter.isReady()).isTrue();
+        assertThat(knownEmailFilter.mightContain("employee6@example.com")).isTrue();
+        verifyNoInteractions(employeeService);
+    }
+
+    @DisplayName("Starting the context warms the caches in a phase ahead of the web server")
+    @Test
+    void givenSnapshot_whenStarted_thenWarmedBeforeTheWebServer() {
+        // given
+        employeeRepository.save(employee("First1", "Last1", "employee1@example.com"));
+        warmStart.writeSnapshot();
+
+        // when
+        warmStart.start();
+
+        // then
+        assertThat(warmStart.isRunning()).isTrue();
+        assertThat(knownEmailFilter.isReady()).isTrue();
+        assertThat(warmStart.getPhase()).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    @DisplayName("Without a snapshot startup stays cold")
+    @Test
+    void givenNoSnapshot_whenWarm_thenNothingWarmed() {
+        // when / then
+        assertThat(warmStart.warm()).isEmpty();
+        assertThat(knownEmailFilter.isReady()).isFalse();
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
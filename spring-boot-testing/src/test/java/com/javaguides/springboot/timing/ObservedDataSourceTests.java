@@ -0,0 +1,98 @@
+package com.javaguides.springboot.timing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ObservedDataSourceTests {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private Statement statement;
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @DisplayName("Prepared and plain statements are reported with their SQL")
+    @Test
+    void givenObservedDataSource_whenStatementsExecuted_thenListenerNotified() throws Exception {
+        // given
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement("select * from employees where id = ?")).willReturn(preparedStatement);
+        given(connection.createStatement()).willReturn(statement);
+        ObservedDataSource observed = new ObservedDataSource(dataSource, listenerProvider());
+
+        // when
+        try (Connection observedConnection = observed.getConnection()) {
+            observedConnection.prepareStatement("select * from employees where id = ?").executeQuery();
+            observedConnection.createStatement().executeUpdate("delete from employees");
+        }
+
+        // then
+        assertThat(listener.connections).isEqualTo(1);
+        assertThat(listener.statements).containsExactly("select * from employees where id = ?", "delete from employees");
+        verify(preparedStatement).executeQuery();
+        verify(connection).close();
+    }
+
+    @DisplayName("Calls other than execute are passed through without notification")
+    @Test
+    void givenObservedDataSource_whenNonExecuteCall_thenNotReported() throws Exception {
+        // given
+        given(dataSource.getConnection()).willReturn(connection);
+        given(connection.prepareStatement("select 1")).willReturn(preparedStatement);
+        ObservedDataSource observed = new ObservedDataSource(dataSource, listenerProvider());
+
+        // when
+        observed.getConnection().prepareStatement("select 1").setLong(1, 1L);
+
+        // then
+        assertThat(listener.statements).isEmpty();
+        verify(preparedStatement).setLong(1, 1L);
+    }
+
+    private ObjectProvider<JdbcListener> listenerProvider() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("listener", listener);
+        return beanFactory.getBeanProvider(JdbcListener.class);
+    }
+
+    private static class RecordingListener implements JdbcListener {
+
+        private final List<String> statements = new ArrayList<>();
+        private int connections;
+
+        @Override
+        public void connectionAcquired(long nanos) {
+            connections++;
+        }
+
+        @Override
+        public void statementExecuted(String sql, long nanos) {
+            statements.add(sql);
+        }
+    }
+}